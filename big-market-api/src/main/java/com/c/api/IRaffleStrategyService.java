@@ -23,6 +23,16 @@ public interface IRaffleStrategyService {
      */
     Response<Boolean> strategyArmory(Long strategyId);
 
+    /**
+     * 策略增量装配（单奖品变更）
+     * 奖品概率或权重池归属调整后，仅重建包含该奖品的抽奖池，其余抽奖池不受影响，支持活动进行中调整概率。
+     *
+     * @param strategyId 策略唯一标识
+     * @param awardId    发生变更的奖品ID
+     * @return Response<Boolean> 装配成功返回 true
+     */
+    Response<Boolean> strategyArmoryByAward(Long strategyId, Integer awardId);
+
     /**
      * 查询抽奖策略配置的奖品列表
      * 检索指定策略下所有可展示的奖品元数据，用于前端抽奖转盘、宫格或列表页的渲染。
@@ -0,0 +1,78 @@
+package com.c.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 请求级记忆化切面
+ * 1. 作用域：进入 {@link com.c.types.annotations.RequestMemoScope} 方法时为当前线程开启记忆表，最外层方法结束时释放（嵌套作用域复用外层）。
+ * 2. 记忆化：作用域内调用 {@link com.c.types.annotations.RequestMemoized} 方法时，以 方法 + 参数 为键复用首次结果（含 null），异常结果不记忆。
+ * 3. 无作用域：后台任务、MQ 消费等未开启作用域的调用直接穿透，行为与原方法一致。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Aspect
+@Component
+public class RequestMemoAOP {
+
+    /** 记忆表中 null 结果的占位标记 */
+    private static final Object NULL = new Object();
+
+    /** 当前线程的请求级记忆表，未开启作用域为null */
+    private static final ThreadLocal<Map<List<Object>, Object>> MEMO = new ThreadLocal<>();
+
+    @Pointcut("@annotation(com.c.types.annotations.RequestMemoScope)")
+    public void scopePoint() {
+    }
+
+    @Pointcut("@annotation(com.c.types.annotations.RequestMemoized)")
+    public void memoizedPoint() {
+    }
+
+    /**
+     * 开启请求级记忆化作用域
+     */
+    @Around("scopePoint()")
+    public Object doScope(ProceedingJoinPoint jp) throws Throwable {
+        if (null != MEMO.get()) return jp.proceed();
+
+        MEMO.set(new HashMap<>());
+        try {
+            return jp.proceed();
+        } finally {
+            MEMO.remove();
+        }
+    }
+
+    /**
+     * 作用域内按 方法 + 参数 复用读取结果
+     */
+    @Around("memoizedPoint()")
+    public Object doMemoized(ProceedingJoinPoint jp) throws Throwable {
+        Map<List<Object>, Object> memo = MEMO.get();
+        if (null == memo) return jp.proceed();
+
+        List<Object> key = new ArrayList<>(jp.getArgs().length + 1);
+        key.add(((MethodSignature) jp.getSignature()).getMethod());
+        key.addAll(Arrays.asList(jp.getArgs()));
+
+        Object value = memo.get(key);
+        if (null != value) return NULL == value ? null : value;
+
+        value = jp.proceed();
+        memo.put(key, null == value ? NULL : value);
+        return value;
+    }
+
+}
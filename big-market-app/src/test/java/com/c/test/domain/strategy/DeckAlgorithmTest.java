@@ -0,0 +1,94 @@
+package com.c.test.domain.strategy;
+
+import com.c.domain.strategy.model.entity.StrategyAwardEntity;
+import com.c.domain.strategy.model.vo.StrategyRateTableVO;
+import com.c.domain.strategy.service.armory.algorithm.impl.DeckAlgorithm;
+import com.c.test.domain.strategy.simulation.InMemoryStrategyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * **牌堆算法测试**
+ * 1. 轮次置换：相邻两轮的发牌顺序不同，观察到上一轮的序列无法推知下一轮的大奖位置。
+ * 2. 精确出奖：每一轮各奖品出奖数严格等于其格子数。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Slf4j
+public class DeckAlgorithmTest {
+
+    private static final String KEY = "100001_v1";
+
+    private static final int[] AWARD_IDS = {101, 102, 103, 104};
+
+    private static final int[] AWARD_COUNTS = {1, 9, 40, 50};
+
+    private DeckAlgorithm deckAlgorithm;
+
+    private StrategyRateTableVO rateTable;
+
+    @Before
+    public void init() {
+        deckAlgorithm = new DeckAlgorithm();
+        ReflectionTestUtils.setField(deckAlgorithm, "repository", new InMemoryStrategyRepository());
+
+        List<StrategyAwardEntity> strategyAwardEntities = new ArrayList<>();
+        for (int awardId : AWARD_IDS) {
+            strategyAwardEntities.add(StrategyAwardEntity
+                    .builder()
+                    .awardId(awardId)
+                    .build());
+        }
+        deckAlgorithm.armoryAlgorithm(KEY, strategyAwardEntities, AWARD_COUNTS, Arrays
+                .stream(AWARD_COUNTS)
+                .sum());
+        rateTable = deckAlgorithm.loadRateTable(KEY, 1L);
+    }
+
+    /**
+     * **测试：相邻两轮发牌顺序不同且出奖数一致**
+     */
+    @Test
+    public void test_roundPermutation() {
+        int[] firstRound = dealRound();
+        int[] secondRound = dealRound();
+        log.info("第一轮:{}", Arrays.toString(firstRound));
+        log.info("第二轮:{}", Arrays.toString(secondRound));
+
+        Assert.assertFalse("相邻两轮发牌顺序相同", Arrays.equals(firstRound, secondRound));
+        Assert.assertEquals(countAwards(firstRound), countAwards(secondRound));
+
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < AWARD_IDS.length; i++) {
+            expected.put(AWARD_IDS[i], AWARD_COUNTS[i]);
+        }
+        Assert.assertEquals(expected, countAwards(firstRound));
+    }
+
+    private int[] dealRound() {
+        int[] round = new int[rateTable.getRateRange()];
+        for (int i = 0; i < round.length; i++) {
+            round[i] = deckAlgorithm.dispatchAlgorithm(rateTable);
+        }
+        return round;
+    }
+
+    private Map<Integer, Integer> countAwards(int[] round) {
+        Map<Integer, Integer> awardCountMap = new HashMap<>();
+        for (int awardId : round) {
+            awardCountMap.merge(awardId, 1, Integer::sum);
+        }
+        return awardCountMap;
+    }
+
+}
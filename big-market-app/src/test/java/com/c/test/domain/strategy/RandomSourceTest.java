@@ -0,0 +1,125 @@
+package com.c.test.domain.strategy;
+
+import com.c.domain.strategy.service.armory.random.IRandomSource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * **抽奖随机源对比测试**
+ * 用于按部署环境选择 strategy.armory.random-source：
+ * 1. 公平性：卡方检验各随机源在 [0, bound) 上是否均匀分布。
+ * 2. 吞吐量：多线程并发抽样下各随机源的每毫秒调用次数。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class RandomSourceTest {
+
+    /** 分桶数量 */
+    private static final int BUCKETS = 100;
+
+    /** 卡方检验样本量 */
+    private static final int SAMPLES = 1_000_000;
+
+    /** 自由度 99、显著性水平 0.001 的卡方临界值 */
+    private static final double CHI_SQUARE_CRITICAL = 148.23;
+
+    /** 吞吐量测试并发线程数 */
+    private static final int THREADS = 8;
+
+    /** 吞吐量测试单线程调用次数 */
+    private static final int CALLS_PER_THREAD = 1_000_000;
+
+    @Resource
+    private Map<String, IRandomSource> randomSourceMap;
+
+    /**
+     * **测试：卡方公平性检验**
+     * 预期：每个随机源的卡方统计量均低于临界值，即无法拒绝"均匀分布"假设。
+     */
+    @Test
+    public void test_chiSquare() {
+        for (IRandomSource.Source source : IRandomSource.Source.values()) {
+            IRandomSource randomSource = randomSourceMap.get(source.getKey());
+
+            long[] observed = new long[BUCKETS];
+            for (int i = 0; i < SAMPLES; i++) {
+                observed[randomSource.nextInt(BUCKETS)]++;
+            }
+
+            double expected = (double) SAMPLES / BUCKETS;
+            double chiSquare = 0;
+            for (long count : observed) {
+                double diff = count - expected;
+                chiSquare += diff * diff / expected;
+            }
+
+            log.info("随机源: {} 卡方统计量: {} 临界值: {}", source.getKey(), String.format("%.2f", chiSquare), CHI_SQUARE_CRITICAL);
+            Assert.assertTrue(source.getKey() + " 分布不均匀", chiSquare < CHI_SQUARE_CRITICAL);
+        }
+    }
+
+    /**
+     * **测试：并发吞吐量对比**
+     * 场景：多线程同时抽样，模拟调度不再等待 Redis 时的竞争状态。
+     */
+    @Test
+    public void test_throughput() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (IRandomSource.Source source : IRandomSource.Source.values()) {
+                IRandomSource randomSource = randomSourceMap.get(source.getKey());
+                // 预热，避免 JIT 编译干扰首轮结果
+                run(executorService, randomSource);
+
+                long start = System.nanoTime();
+                long checksum = run(executorService, randomSource);
+                long costMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+                log.info("随机源: {} 耗时: {}ms 吞吐: {} 次/ms 校验和: {}", source.getKey(), costMillis,
+                        (long) THREADS * CALLS_PER_THREAD / costMillis, checksum);
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private long run(ExecutorService executorService, IRandomSource randomSource) throws Exception {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executorService.submit(() -> {
+                startSignal.await();
+                long sum = 0;
+                for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                    sum += randomSource.nextInt(BUCKETS);
+                }
+                return sum;
+            }));
+        }
+        startSignal.countDown();
+
+        long checksum = 0;
+        for (Future<Long> future : futures) {
+            checksum += future.get();
+        }
+        return checksum;
+    }
+
+}
@@ -0,0 +1,291 @@
+package com.c.test.domain.strategy.simulation;
+
+import com.c.domain.strategy.model.entity.StrategyAwardEntity;
+import com.c.domain.strategy.model.entity.StrategyEntity;
+import com.c.domain.strategy.model.entity.StrategyRuleEntity;
+import com.c.domain.strategy.model.vo.*;
+import com.c.domain.strategy.repository.IStrategyRepository;
+import com.c.types.enums.ResponseCode;
+import com.c.types.exception.AppException;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * **内存版策略仓储（离线仿真替身）**
+ * 1. 配置：策略、奖品、规则由仿真用例直接写入，替代 MySQL 查询。
+ * 2. 装配：概率表、版本指针、牌堆游标、库存计数器均存放于进程内 Map，替代 Redis，行为与 Redis 实现保持一致。
+ * 3. 边界：仅实现装配与调度链路所需能力，用户次数、决策树、异步流水等抽奖链路能力不参与仿真。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+public class InMemoryStrategyRepository implements IStrategyRepository {
+
+    private final Map<Long, StrategyEntity> strategyMap = new ConcurrentHashMap<>();
+    private final Map<Long, List<StrategyAwardEntity>> strategyAwardMap = new ConcurrentHashMap<>();
+    private final Map<String, StrategyRuleEntity> strategyRuleMap = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> rateRangeMap = new ConcurrentHashMap<>();
+    private final Map<String, int[]> searchRateTableMap = new ConcurrentHashMap<>();
+    private final Map<String, StrategyAwardRangeTableVO> rangeTableMap = new ConcurrentHashMap<>();
+    private final Map<String, StrategyAwardAliasTableVO> aliasTableMap = new ConcurrentHashMap<>();
+    private final Map<String, int[]> deckTableMap = new ConcurrentHashMap<>();
+    private final Map<String, Long> deckSeedMap = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> deckCursorMap = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> rateTableVersionMap = new ConcurrentHashMap<>();
+    private final Map<String, StrategyRateTablePointerVO> rateTablePointerMap = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> awardStockMap = new ConcurrentHashMap<>();
+
+    // ========================================================================
+    // 0. 仿真配置写入
+    // ========================================================================
+
+    public void saveStrategy(StrategyEntity strategyEntity, List<StrategyAwardEntity> strategyAwardEntities) {
+        strategyMap.put(strategyEntity.getStrategyId(), strategyEntity);
+        strategyAwardMap.put(strategyEntity.getStrategyId(), strategyAwardEntities);
+    }
+
+    public void saveStrategyRule(StrategyRuleEntity strategyRuleEntity) {
+        strategyRuleMap.put(ruleKey(strategyRuleEntity.getStrategyId(), strategyRuleEntity.getAwardId(),
+                strategyRuleEntity.getRuleModel()), strategyRuleEntity);
+    }
+
+    // ========================================================================
+    // 1. 策略配置查询
+    // ========================================================================
+
+    @Override
+    public List<StrategyAwardEntity> queryStrategyAwardList(Long strategyId) {
+        return strategyAwardMap.get(strategyId);
+    }
+
+    @Override
+    public StrategyEntity queryStrategyEntityByStrategyId(Long strategyId) {
+        return strategyMap.get(strategyId);
+    }
+
+    @Override
+    public StrategyAwardEntity queryStrategyAwardEntity(Long strategyId, Integer awardId) {
+        List<StrategyAwardEntity> strategyAwardEntities = strategyAwardMap.get(strategyId);
+        if (null == strategyAwardEntities) return null;
+        for (StrategyAwardEntity strategyAward : strategyAwardEntities) {
+            if (strategyAward.getAwardId().equals(awardId)) return strategyAward;
+        }
+        return null;
+    }
+
+    @Override
+    public StrategyRuleEntity queryStrategyRule(Long strategyId, String ruleModel) {
+        return strategyRuleMap.get(ruleKey(strategyId, null, ruleModel));
+    }
+
+    @Override
+    public String queryStrategyRuleValue(Long strategyId, String ruleModel) {
+        return queryStrategyRuleValue(strategyId, null, ruleModel);
+    }
+
+    @Override
+    public String queryStrategyRuleValue(Long strategyId, Integer awardId, String ruleModel) {
+        StrategyRuleEntity strategyRule = strategyRuleMap.get(ruleKey(strategyId, awardId, ruleModel));
+        return null == strategyRule ? null : strategyRule.getRuleValue();
+    }
+
+    // ========================================================================
+    // 2. 概率装配与寻址
+    // ========================================================================
+
+    @Override
+    public void storeStrategyAwardSearchRateTable(String key, int[] table) {
+        rateRangeMap.put(key, table.length);
+        searchRateTableMap.put(key, table);
+    }
+
+    @Override
+    public void storeStrategyAwardRangeTable(String key, Integer rateRange, StrategyAwardRangeTableVO rangeTable) {
+        rateRangeMap.put(key, rateRange);
+        rangeTableMap.put(key, rangeTable);
+    }
+
+    @Override
+    public void storeStrategyAwardAliasTable(String key, Integer rateRange, StrategyAwardAliasTableVO aliasTable) {
+        rateRangeMap.put(key, rateRange);
+        aliasTableMap.put(key, aliasTable);
+    }
+
+    @Override
+    public StrategyAwardAliasTableVO getStrategyAwardAliasTable(String key) {
+        return aliasTableMap.get(key);
+    }
+
+    @Override
+    public int getRateRange(String key) {
+        return rateRangeMap.get(key);
+    }
+
+    @Override
+    public StrategyAwardRangeTableVO getStrategyAwardRangeTable(String key) {
+        return rangeTableMap.get(key);
+    }
+
+    @Override
+    public int[] getStrategyAwardSearchRateTable(String key) {
+        return searchRateTableMap.get(key);
+    }
+
+    @Override
+    public void storeStrategyAwardDeckTable(String key, int[] deck, long seed) {
+        rateRangeMap.put(key, deck.length);
+        deckTableMap.put(key, deck);
+        deckSeedMap.put(key, seed);
+    }
+
+    @Override
+    public int[] getStrategyAwardDeckTable(String key) {
+        return deckTableMap.get(key);
+    }
+
+    @Override
+    public long getStrategyAwardDeckSeed(String key) {
+        return deckSeedMap.get(key);
+    }
+
+    @Override
+    public long nextStrategyAwardDeckCursor(String key) {
+        return deckCursorMap
+                .computeIfAbsent(key, k -> new AtomicLong())
+                .incrementAndGet();
+    }
+
+    @Override
+    public long nextStrategyRateTableVersion(String key) {
+        return rateTableVersionMap
+                .computeIfAbsent(key, k -> new AtomicLong())
+                .incrementAndGet();
+    }
+
+    @Override
+    public void switchStrategyRateTable(String key, StrategyRateTablePointerVO pointer) {
+        rateTablePointerMap.put(key, pointer);
+    }
+
+    @Override
+    public StrategyRateTablePointerVO queryStrategyRateTablePointer(String key) {
+        return rateTablePointerMap.get(key);
+    }
+
+    @Override
+    public void clearStrategyArmoryCache(Long strategyId, Integer awardId) {
+        // 配置直接存放于内存，无缓存需要清理
+    }
+
+    @Override
+    public void storeStrategyRateTableSnapshot(String key, StrategyRateTableVO rateTable) {
+        // 离线仿真不落本地快照
+    }
+
+    @Override
+    public Map<String, StrategyRateTableVO> queryStrategyRateTableSnapshot() {
+        return Collections.emptyMap();
+    }
+
+    // ========================================================================
+    // 3. 决策树模型
+    // ========================================================================
+
+    @Override
+    public RuleTreeVO queryRuleTreeVOByTreeId(String treeId) {
+        throw new UnsupportedOperationException("离线仿真不执行决策树");
+    }
+
+    // ========================================================================
+    // 4. 库存管理
+    // ========================================================================
+
+    @Override
+    public void cacheStrategyAwardCount(Map<String, Integer> cacheKeyAwardCountMap) {
+        cacheKeyAwardCountMap.forEach((cacheKey, awardCount) -> awardStockMap.putIfAbsent(cacheKey,
+                new AtomicLong(awardCount)));
+    }
+
+    @Override
+    public Boolean subtractAwardStock(String cacheKey, Date endDateTime) {
+        return subtractAwardStock(cacheKey);
+    }
+
+    @Override
+    public Boolean subtractAwardStock(String cacheKey) {
+        // 与 Redis 实现一致：扣减后小于 0 回补计数器并抛出库存耗尽异常
+        if (StrategyAwardStockStatusVO.EMPTY == subtractAwardStockByScript(cacheKey, null)) {
+            throw new AppException(ResponseCode.STRATEGY_AWARD_STOCK_EMPTY);
+        }
+        return true;
+    }
+
+    @Override
+    public StrategyAwardStockStatusVO subtractAwardStockByScript(String cacheKey, Date endDateTime) {
+        AtomicLong stock = awardStockMap.get(cacheKey);
+        if (null == stock) return StrategyAwardStockStatusVO.EMPTY;
+        if (stock.decrementAndGet() >= 0) return StrategyAwardStockStatusVO.SUCCESS;
+        stock.incrementAndGet();
+        return StrategyAwardStockStatusVO.EMPTY;
+    }
+
+    @Override
+    public void awardStockConsumeSendQueue(StrategyAwardStockKeyVO strategyAwardStockKeyVO) {
+        // 离线仿真不同步数据库库存
+    }
+
+    @Override
+    public StrategyAwardStockKeyVO takeQueueValue() {
+        return null;
+    }
+
+    @Override
+    public void updateStrategyAwardStock(Long strategyId, Integer awardId) {
+        // 离线仿真不同步数据库库存
+    }
+
+    // ========================================================================
+    // 5. 业务映射与行为统计（不参与仿真）
+    // ========================================================================
+
+    @Override
+    public Long queryStrategyIdByActivityId(Long activityId) {
+        throw new UnsupportedOperationException("离线仿真按策略ID装配");
+    }
+
+    @Override
+    public Integer queryTodayUserRaffleCount(String userId, Long strategyId) {
+        return 0;
+    }
+
+    @Override
+    public RaffleContextVO queryRaffleContext(String userId, Long strategyId, RaffleContextPlanVO raffleContextPlan) {
+        throw new UnsupportedOperationException("离线仿真不执行抽奖链路");
+    }
+
+    @Override
+    public Map<String, Integer> queryAwardRuleLockCount(String[] treeIds) {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public Integer queryTotalUserRaffleCount(String userId, Long strategyId) {
+        return 0;
+    }
+
+    @Override
+    public List<RuleWeightVO> queryAwardRuleWeight(Long strategyId) {
+        return Collections.emptyList();
+    }
+
+    private static String ruleKey(Long strategyId, Integer awardId, String ruleModel) {
+        return strategyId + "_" + awardId + "_" + ruleModel;
+    }
+
+}
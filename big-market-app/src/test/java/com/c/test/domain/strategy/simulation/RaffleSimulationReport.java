@@ -0,0 +1,118 @@
+package com.c.test.domain.strategy.simulation;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * **抽奖仿真报告**
+ * 1. 概率：各奖品实际出奖频率与配置 awardRate（按抽奖池归一化）的偏差及 Z 分数。
+ * 2. 库存：各奖品实际发放数量、库存耗尽时所处的抽奖序号与耗时。
+ * 3. 吞吐：总耗时与单核每秒抽奖次数。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RaffleSimulationReport {
+
+    /** 抽奖池（策略ID 或 策略ID_权重值） */
+    private String poolKey;
+
+    /** 抽奖总次数 */
+    private long draws;
+
+    /** 并行度 */
+    private int parallelism;
+
+    /** 总耗时（毫秒） */
+    private long costMillis;
+
+    /** 库存耗尽（扣减失败）次数 */
+    private long stockEmptyCount;
+
+    /** 奖品明细 */
+    private List<AwardStat> awardStats;
+
+    /**
+     * 单核每秒抽奖次数
+     */
+    public long drawsPerSecondPerCore() {
+        return draws * 1000L / Math.max(1, costMillis) / Math.max(1, parallelism);
+    }
+
+    /**
+     * 最大绝对 Z 分数（概率偏差显著性）
+     */
+    public double maxAbsZScore() {
+        double max = 0;
+        for (AwardStat awardStat : awardStats) {
+            max = Math.max(max, Math.abs(awardStat.getZScore()));
+        }
+        return max;
+    }
+
+    /**
+     * 格式化输出
+     */
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%n抽奖池: %s 次数: %d 并行度: %d 耗时: %dms 单核吞吐: %d 次/秒 库存耗尽次数: %d%n", poolKey,
+                draws, parallelism, costMillis, drawsPerSecondPerCore(), stockEmptyCount));
+        builder.append(String.format("%-8s %-12s %-12s %-10s %-12s %-10s %-14s %-10s%n", "awardId", "配置概率", "实际概率",
+                "Z分数", "出奖次数", "库存", "耗尽于第N次", "耗尽耗时ms"));
+        for (AwardStat awardStat : awardStats) {
+            builder.append(String.format("%-8d %-12.6f %-12.6f %-10.2f %-12d %-10s %-14s %-10s%n",
+                    awardStat.getAwardId(), awardStat.getConfiguredRate(), awardStat.getObservedRate(),
+                    awardStat.getZScore(), awardStat.getAwardedCount(),
+                    null == awardStat.getAwardCount() ? "-" : awardStat.getAwardCount(),
+                    awardStat.getExhaustedAtDraw() > 0 ? awardStat.getExhaustedAtDraw() : "-",
+                    awardStat.getExhaustedAtDraw() > 0 ? awardStat.getExhaustedAtMillis() : "-"));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 奖品维度统计
+     */
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class AwardStat {
+
+        /** 奖品ID */
+        private Integer awardId;
+
+        /** 配置概率（按抽奖池归一化） */
+        private double configuredRate;
+
+        /** 实际出奖频率（调度命中次数 / 抽奖总次数） */
+        private double observedRate;
+
+        /** Z 分数：(实际 - 配置) / 二项分布标准差 */
+        private double zScore;
+
+        /** 调度命中次数 */
+        private long dispatchCount;
+
+        /** 实际发放次数（库存扣减成功） */
+        private long awardedCount;
+
+        /** 配置库存 */
+        private Integer awardCount;
+
+        /** 库存耗尽时所处的抽奖序号（近似值，0 表示未耗尽） */
+        private long exhaustedAtDraw;
+
+        /** 库存耗尽时距仿真开始的耗时（毫秒） */
+        private long exhaustedAtMillis;
+    }
+
+}
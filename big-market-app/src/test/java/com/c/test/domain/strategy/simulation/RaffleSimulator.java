@@ -0,0 +1,222 @@
+package com.c.test.domain.strategy.simulation;
+
+import com.c.domain.strategy.model.entity.StrategyAwardEntity;
+import com.c.domain.strategy.service.armory.IStrategyDispatch;
+import com.c.types.enums.ResponseCode;
+import com.c.types.exception.AppException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * **离线蒙特卡洛抽奖仿真器**
+ * 1. 调度：经 {@link IStrategyDispatch} 在真实装配出的概率表上抽奖，Fork/Join 按批次二分拆解至各核并行执行。
+ * 2. 库存：可选逐次扣减库存，记录各奖品库存耗尽时所处的抽奖序号与耗时。
+ * 3. 统计：叶子任务线程内累计计数后逐层合并，热路径无共享写入；抽奖进度按批次发布，用于近似耗尽序号。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+public class RaffleSimulator {
+
+    /** 叶子任务抽奖次数上限 */
+    private static final long LEAF_DRAWS = 1L << 20;
+
+    /** 抽奖进度发布批次（耗尽序号误差上限约为 批次 × 并行度） */
+    private static final int PROGRESS_BATCH = 4096;
+
+    private final IStrategyDispatch strategyDispatch;
+
+    private final ForkJoinPool forkJoinPool;
+
+    public RaffleSimulator(IStrategyDispatch strategyDispatch, int parallelism) {
+        this.strategyDispatch = strategyDispatch;
+        this.forkJoinPool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * 执行仿真
+     *
+     * @param strategyId      策略ID
+     * @param ruleWeightValue 权重值，null 表示默认抽奖池
+     * @param poolAwards      抽奖池奖品配置（用于计算期望概率与库存）
+     * @param draws           抽奖总次数
+     * @param consumeStock    是否逐次扣减库存
+     * @return 仿真报告
+     */
+    public RaffleSimulationReport simulate(Long strategyId, String ruleWeightValue, List<StrategyAwardEntity> poolAwards,
+                                           long draws, boolean consumeStock) {
+        // 1. 奖品ID -> 计数下标（奖品ID为小整数，数组直接寻址）
+        int size = poolAwards.size();
+        int maxAwardId = poolAwards
+                .stream()
+                .mapToInt(StrategyAwardEntity::getAwardId)
+                .max()
+                .orElse(0);
+        int[] indexByAwardId = new int[maxAwardId + 1];
+        Arrays.fill(indexByAwardId, -1);
+        for (int i = 0; i < size; i++) {
+            indexByAwardId[poolAwards.get(i).getAwardId()] = i;
+        }
+
+        // 2. 并行抽奖
+        Simulation simulation = new Simulation(strategyId, ruleWeightValue, indexByAwardId, size, consumeStock);
+        long start = System.nanoTime();
+        long[] counts = forkJoinPool.invoke(new DrawTask(simulation, draws));
+        long costMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 3. 统计：调度频率对比配置概率，发放次数对比库存
+        BigDecimal totalRate = poolAwards
+                .stream()
+                .map(StrategyAwardEntity::getAwardRate)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<RaffleSimulationReport.AwardStat> awardStats = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StrategyAwardEntity award = poolAwards.get(i);
+            double expected = award
+                    .getAwardRate()
+                    .doubleValue() / totalRate.doubleValue();
+            double observed = (double) counts[i] / draws;
+            double standardDeviation = Math.sqrt(expected * (1 - expected) / draws);
+            awardStats.add(RaffleSimulationReport.AwardStat
+                    .builder()
+                    .awardId(award.getAwardId())
+                    .configuredRate(expected)
+                    .observedRate(observed)
+                    .zScore(standardDeviation == 0 ? 0 : (observed - expected) / standardDeviation)
+                    .dispatchCount(counts[i])
+                    .awardedCount(consumeStock ? counts[size + i] : counts[i])
+                    .awardCount(consumeStock ? award.getAwardCount() : null)
+                    .exhaustedAtDraw(simulation.exhaustedAtDraw.get(i))
+                    .exhaustedAtMillis(TimeUnit.NANOSECONDS.toMillis(Math.max(0,
+                            simulation.exhaustedAtNanos.get(i) - start)))
+                    .build());
+        }
+
+        return RaffleSimulationReport
+                .builder()
+                .poolKey(null == ruleWeightValue ? String.valueOf(strategyId) : strategyId + "_" + ruleWeightValue)
+                .draws(draws)
+                .parallelism(forkJoinPool.getParallelism())
+                .costMillis(costMillis)
+                .stockEmptyCount(counts[2 * size])
+                .awardStats(awardStats)
+                .build();
+    }
+
+    public void shutdown() {
+        forkJoinPool.shutdown();
+    }
+
+    /**
+     * 单次仿真共享状态（只读配置 + 批次进度 + 耗尽标记）
+     */
+    private static final class Simulation {
+
+        private final Long strategyId;
+        private final String ruleWeightValue;
+        private final int[] indexByAwardId;
+        private final int size;
+        private final boolean consumeStock;
+        private final Date endDateTime = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+
+        private final AtomicLong progress = new AtomicLong();
+        private final AtomicLongArray exhaustedAtDraw;
+        private final AtomicLongArray exhaustedAtNanos;
+
+        private Simulation(Long strategyId, String ruleWeightValue, int[] indexByAwardId, int size,
+                           boolean consumeStock) {
+            this.strategyId = strategyId;
+            this.ruleWeightValue = ruleWeightValue;
+            this.indexByAwardId = indexByAwardId;
+            this.size = size;
+            this.consumeStock = consumeStock;
+            this.exhaustedAtDraw = new AtomicLongArray(size);
+            this.exhaustedAtNanos = new AtomicLongArray(size);
+        }
+
+        private void markExhausted(int index, long drawNo) {
+            if (exhaustedAtDraw.compareAndSet(index, 0, drawNo)) {
+                exhaustedAtNanos.set(index, System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * 抽奖任务：超过叶子上限时二分拆解，计数数组布局为 [调度次数 × n | 发放次数 × n | 库存耗尽次数]
+     */
+    private final class DrawTask extends RecursiveTask<long[]> {
+
+        private final Simulation simulation;
+        private final long draws;
+
+        private DrawTask(Simulation simulation, long draws) {
+            this.simulation = simulation;
+            this.draws = draws;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (draws > LEAF_DRAWS) {
+                DrawTask left = new DrawTask(simulation, draws >>> 1);
+                left.fork();
+                long[] counts = new DrawTask(simulation, draws - (draws >>> 1)).compute();
+                long[] leftCounts = left.join();
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += leftCounts[i];
+                }
+                return counts;
+            }
+            return drawLeaf();
+        }
+
+        private long[] drawLeaf() {
+            int size = simulation.size;
+            long[] counts = new long[2 * size + 1];
+            int pending = 0;
+            for (long i = 0; i < draws; i++) {
+                Integer awardId = null == simulation.ruleWeightValue ?
+                        strategyDispatch.getRandomAwardId(simulation.strategyId) :
+                        strategyDispatch.getRandomAwardId(simulation.strategyId, simulation.ruleWeightValue);
+                int index = simulation.indexByAwardId[awardId];
+                counts[index]++;
+
+                if (simulation.consumeStock) {
+                    if (subtractAwardStock(awardId)) {
+                        counts[size + index]++;
+                    } else {
+                        counts[2 * size]++;
+                        simulation.markExhausted(index, simulation.progress.get() + pending + 1);
+                    }
+                }
+
+                if (++pending == PROGRESS_BATCH) {
+                    simulation.progress.addAndGet(pending);
+                    pending = 0;
+                }
+            }
+            simulation.progress.addAndGet(pending);
+            return counts;
+        }
+
+        private boolean subtractAwardStock(Integer awardId) {
+            try {
+                return strategyDispatch.subtractAwardStock(simulation.strategyId, awardId, simulation.endDateTime);
+            } catch (AppException e) {
+                if (ResponseCode.STRATEGY_AWARD_STOCK_EMPTY
+                        .getCode()
+                        .equals(e.getCode())) return false;
+                throw e;
+            }
+        }
+    }
+
+}
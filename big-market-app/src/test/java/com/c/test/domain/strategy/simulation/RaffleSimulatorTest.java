@@ -0,0 +1,178 @@
+package com.c.test.domain.strategy.simulation;
+
+import com.c.domain.strategy.model.entity.StrategyAwardEntity;
+import com.c.domain.strategy.model.entity.StrategyEntity;
+import com.c.domain.strategy.model.entity.StrategyRuleEntity;
+import com.c.domain.strategy.repository.IStrategyRepository;
+import com.c.domain.strategy.service.armory.IStrategyArmory;
+import com.c.domain.strategy.service.armory.IStrategyDispatch;
+import com.c.domain.strategy.service.armory.StrategyAlgorithmCostModel;
+import com.c.domain.strategy.service.armory.StrategyArmoryDispatch;
+import com.c.domain.strategy.service.armory.StrategyRateTableLocalCache;
+import com.c.domain.strategy.service.armory.algorithm.impl.AliasAlgorithm;
+import com.c.domain.strategy.service.armory.algorithm.impl.DeckAlgorithm;
+import com.c.domain.strategy.service.armory.algorithm.impl.O1Algorithm;
+import com.c.domain.strategy.service.armory.algorithm.impl.OLogNAlgorithm;
+import com.c.domain.strategy.service.armory.random.SecureRandomSource;
+import com.c.domain.strategy.service.armory.random.SplittableRandomSource;
+import com.c.domain.strategy.service.armory.random.ThreadLocalRandomSource;
+import com.c.domain.strategy.service.rule.StrategyRuleLocalCache;
+import com.c.types.common.Constants;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * **离线蒙特卡洛抽奖仿真**
+ * 活动上线前校验概率与容量，仿真过程不写 MySQL/Redis：
+ * 1. 装配：从真实仓储只读加载待仿真策略的奖品与规则配置，复制到内存版仓储后，经真实的 {@link IStrategyArmory}
+ * 装配出默认池与权重池概率表；抽奖与库存扣减全部在内存中进行。
+ * 2. 概率：海量抽奖下各奖品实际频率与配置 awardRate 的 Z 分数需低于阈值。
+ * 3. 库存：逐次扣减库存，校验无超发并输出各奖品库存耗尽时机。
+ * 运行参数：-Dsimulation.strategyId=100001 -Dsimulation.draws=200000000 -Dsimulation.parallelism=8 -Dstrategy.armory.random-source=threadLocalRandomSource
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class RaffleSimulatorTest {
+
+    /** 仿真策略ID */
+    private static final Long STRATEGY_ID = Long.getLong("simulation.strategyId", 100001L);
+
+    /** 概率仿真抽奖次数 */
+    private static final long DRAWS = Long.getLong("simulation.draws", 10_000_000L);
+
+    /** 并行度 */
+    private static final int PARALLELISM = Integer.getInteger("simulation.parallelism",
+            Runtime.getRuntime().availableProcessors());
+
+    /** Z 分数阈值（5σ，单奖品误报概率约 5.7e-7） */
+    private static final double MAX_Z_SCORE = 5D;
+
+    /** 真实仓储：仅用于只读加载策略配置 */
+    @Resource
+    private IStrategyRepository sourceStrategyRepository;
+
+    private AnnotationConfigApplicationContext applicationContext;
+
+    private InMemoryStrategyRepository strategyRepository;
+
+    private RaffleSimulator raffleSimulator;
+
+    @Before
+    public void init() {
+        strategyRepository = new InMemoryStrategyRepository();
+        loadStrategy();
+
+        // 仅装载装配/调度相关组件，仓储替换为内存实现
+        applicationContext = new AnnotationConfigApplicationContext();
+        applicationContext
+                .getBeanFactory()
+                .registerSingleton("strategyRepository", strategyRepository);
+        applicationContext.register(SecureRandomSource.class, SplittableRandomSource.class,
+                ThreadLocalRandomSource.class, O1Algorithm.class, OLogNAlgorithm.class, AliasAlgorithm.class,
+                DeckAlgorithm.class, StrategyAlgorithmCostModel.class, StrategyRateTableLocalCache.class,
+                StrategyRuleLocalCache.class, StrategyArmoryDispatch.class);
+        applicationContext.refresh();
+
+        Assert.assertTrue(applicationContext
+                .getBean(IStrategyArmory.class)
+                .assembleLotteryStrategy(STRATEGY_ID));
+        raffleSimulator = new RaffleSimulator(applicationContext.getBean(IStrategyDispatch.class), PARALLELISM);
+    }
+
+    @After
+    public void destroy() {
+        raffleSimulator.shutdown();
+        applicationContext.close();
+    }
+
+    /**
+     * **测试：概率仿真**
+     * 预期：默认池与各权重池中，每个奖品的实际频率与配置概率的偏差均在 5σ 以内。
+     */
+    @Test
+    public void test_odds() {
+        List<StrategyAwardEntity> strategyAwards = strategyRepository.queryStrategyAwardList(STRATEGY_ID);
+        assertOdds(raffleSimulator.simulate(STRATEGY_ID, null, strategyAwards, DRAWS, false));
+
+        StrategyRuleEntity ruleWeight = strategyRepository.queryStrategyRule(STRATEGY_ID, Constants.RULE_WEIGHT);
+        if (null == ruleWeight) return;
+        Map<String, List<Integer>> ruleValueGroup = ruleWeight.getRuleValueGroup();
+        for (Map.Entry<String, List<Integer>> entry : ruleValueGroup.entrySet()) {
+            Set<Integer> memberAwardIds = new HashSet<>(entry.getValue());
+            List<StrategyAwardEntity> poolAwards = new ArrayList<>();
+            for (StrategyAwardEntity strategyAward : strategyAwards) {
+                if (memberAwardIds.contains(strategyAward.getAwardId())) poolAwards.add(strategyAward);
+            }
+            assertOdds(raffleSimulator.simulate(STRATEGY_ID, entry.getKey(), poolAwards, DRAWS, false));
+        }
+    }
+
+    /**
+     * **测试：库存耗尽仿真**
+     * 场景：抽奖次数为总库存的 2 倍，逐次扣减库存。
+     * 预期：任何奖品发放数量不超过库存；已耗尽的奖品发放数量恰好等于库存。
+     */
+    @Test
+    public void test_stockExhaustion() {
+        List<StrategyAwardEntity> strategyAwards = strategyRepository.queryStrategyAwardList(STRATEGY_ID);
+        long totalStock = strategyAwards
+                .stream()
+                .mapToLong(StrategyAwardEntity::getAwardCount)
+                .sum();
+
+        RaffleSimulationReport report = raffleSimulator.simulate(STRATEGY_ID, null, strategyAwards, totalStock * 2,
+                true);
+        log.info("库存耗尽仿真{}", report.format());
+
+        for (RaffleSimulationReport.AwardStat awardStat : report.getAwardStats()) {
+            Assert.assertTrue(awardStat.getAwardId() + " 库存超发",
+                    awardStat.getAwardedCount() <= awardStat.getAwardCount());
+            if (awardStat.getExhaustedAtDraw() > 0) {
+                Assert.assertEquals(awardStat.getAwardId() + " 耗尽时发放数量与库存不一致",
+                        (long) awardStat.getAwardCount(), awardStat.getAwardedCount());
+            }
+        }
+    }
+
+    private void assertOdds(RaffleSimulationReport report) {
+        log.info("概率仿真{}", report.format());
+        Assert.assertTrue(report.getPoolKey() + " 实际概率偏离配置，maxZ=" + report.maxAbsZScore(),
+                report.maxAbsZScore() < MAX_Z_SCORE);
+    }
+
+    /**
+     * 从真实仓储只读加载策略主体、奖品列表与策略规则，复制到内存版仓储
+     */
+    private void loadStrategy() {
+        StrategyEntity strategyEntity = sourceStrategyRepository.queryStrategyEntityByStrategyId(STRATEGY_ID);
+        Assert.assertNotNull("策略不存在: " + STRATEGY_ID, strategyEntity);
+        List<StrategyAwardEntity> strategyAwards = sourceStrategyRepository.queryStrategyAwardList(STRATEGY_ID);
+        Assert.assertFalse("策略奖品为空: " + STRATEGY_ID, strategyAwards.isEmpty());
+        strategyRepository.saveStrategy(strategyEntity, new ArrayList<>(strategyAwards));
+
+        for (String ruleModel : strategyEntity.ruleModels()) {
+            StrategyRuleEntity strategyRuleEntity = sourceStrategyRepository.queryStrategyRule(STRATEGY_ID,
+                    ruleModel);
+            if (null != strategyRuleEntity) strategyRepository.saveStrategyRule(strategyRuleEntity);
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.c.test.infrastructure;
+
+import com.c.infrastructure.redis.IRedisService;
+import com.c.infrastructure.stock.SegmentedStockCounter;
+import com.c.types.common.Constants;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.annotation.Resource;
+import java.util.Collections;
+
+/**
+ * **分段库存计数器测试**
+ * 1. 分段路由：达到阈值的库存拆分为分段，扣减恰好耗尽全部库存，最后一件返回 0，之后返回库存耗尽。
+ * 2. 售罄掩码：各分段扣空后售罄位图全部置位。
+ * 3. 重装配：库存被清理后重新装配，本地分段数与售罄掩码失效，扣减恢复。
+ * 4. 缺失保护：未装配的库存扣减返回库存耗尽，且不会创建计数器。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class SegmentedStockCounterTest {
+
+    /** 测试分段数 */
+    private static final int SEGMENT_COUNT = 4;
+
+    /** 测试分段阈值 */
+    private static final long MIN_STOCK = 8;
+
+    /** 序号账本过期秒数 */
+    private static final long EXPIRE_SECONDS = 60;
+
+    private static final String BIT_COUNT_SCRIPT = "return redis.call('bitcount', KEYS[1])";
+
+    @Resource
+    private SegmentedStockCounter stockCounter;
+
+    @Resource
+    private IRedisService redisService;
+
+    private Object originalSegmentCount;
+
+    private Object originalMinStock;
+
+    private String cacheKey;
+
+    @Before
+    public void init() {
+        originalSegmentCount = ReflectionTestUtils.getField(stockCounter, "segmentCount");
+        originalMinStock = ReflectionTestUtils.getField(stockCounter, "minStock");
+        ReflectionTestUtils.setField(stockCounter, "segmentCount", SEGMENT_COUNT);
+        ReflectionTestUtils.setField(stockCounter, "minStock", MIN_STOCK);
+        cacheKey = Constants.RedisKey.STRATEGY_AWARD_COUNT_KEY + "test_" + System.nanoTime();
+    }
+
+    @After
+    public void destroy() {
+        clearStock();
+        ReflectionTestUtils.setField(stockCounter, "segmentCount", originalSegmentCount);
+        ReflectionTestUtils.setField(stockCounter, "minStock", originalMinStock);
+    }
+
+    /**
+     * **测试：分段路由**
+     * 预期：10 件库存拆分为 4 段，前 9 次扣减返回正数，第 10 次返回 0（整体售罄），第 11 次返回库存耗尽。
+     */
+    @Test
+    public void test_segmentRouting() {
+        Assert.assertTrue(stockCounter.cacheStock(cacheKey, 10));
+        Assert.assertFalse(redisService.isExists(cacheKey));
+        Assert.assertEquals(Long.valueOf(SEGMENT_COUNT),
+                redisService.getAtomicLongIfExists(Constants.RedisKey.STOCK_SEGMENT_COUNT_KEY + cacheKey));
+        Assert.assertEquals(Long.valueOf(10), stockCounter.queryStock(cacheKey));
+
+        for (int i = 1; i < 10; i++) {
+            Assert.assertTrue("第 " + i + " 次扣减应成功且未售罄", stockCounter.subtract(cacheKey, EXPIRE_SECONDS) > 0);
+        }
+        Assert.assertEquals(0, stockCounter.subtract(cacheKey, EXPIRE_SECONDS));
+        Assert.assertEquals(SegmentedStockCounter.EMPTY, stockCounter.subtract(cacheKey, EXPIRE_SECONDS));
+        Assert.assertEquals(Long.valueOf(0), stockCounter.queryStock(cacheKey));
+    }
+
+    /**
+     * **测试：售罄掩码**
+     * 预期：全部分段扣空后售罄位图计数等于分段数；低于阈值的库存不分段，由调用方按单 Key 装配。
+     */
+    @Test
+    public void test_soldOutMask() {
+        Assert.assertTrue(stockCounter.cacheStock(cacheKey, MIN_STOCK));
+        for (int i = 0; i < MIN_STOCK; i++) {
+            Assert.assertTrue(stockCounter.subtract(cacheKey, EXPIRE_SECONDS) >= 0);
+        }
+        Assert.assertEquals(SegmentedStockCounter.EMPTY, stockCounter.subtract(cacheKey, EXPIRE_SECONDS));
+
+        long soldOutCount = redisService.evalSha(BIT_COUNT_SCRIPT,
+                Collections.singletonList(Constants.RedisKey.STOCK_SEGMENT_SOLD_OUT_KEY + cacheKey));
+        Assert.assertEquals(SEGMENT_COUNT, soldOutCount);
+
+        String smallKey = cacheKey + "_small";
+        Assert.assertFalse(stockCounter.cacheStock(smallKey, MIN_STOCK - 1));
+        Assert.assertFalse(redisService.isExists(Constants.RedisKey.STOCK_SEGMENT_COUNT_KEY + smallKey));
+    }
+
+    /**
+     * **测试：重装配**
+     * 预期：库存扣空并被清理后重新装配，扣减不再被旧的分段数与售罄掩码拦截。
+     */
+    @Test
+    public void test_reassemble() {
+        Assert.assertTrue(stockCounter.cacheStock(cacheKey, MIN_STOCK));
+        for (int i = 0; i < MIN_STOCK; i++) {
+            stockCounter.subtract(cacheKey, EXPIRE_SECONDS);
+        }
+        Assert.assertEquals(SegmentedStockCounter.EMPTY, stockCounter.subtract(cacheKey, EXPIRE_SECONDS));
+
+        clearStock();
+        Assert.assertTrue(stockCounter.cacheStock(cacheKey, MIN_STOCK));
+        Assert.assertTrue(stockCounter.subtract(cacheKey, EXPIRE_SECONDS) > 0);
+        Assert.assertEquals(Long.valueOf(MIN_STOCK - 1), stockCounter.queryStock(cacheKey));
+    }
+
+    /**
+     * **测试：缺失保护**
+     * 预期：未装配的库存扣减返回库存耗尽，且计数器不会被创建为负值。
+     */
+    @Test
+    public void test_absentStock() {
+        Assert.assertEquals(SegmentedStockCounter.EMPTY, stockCounter.subtract(cacheKey, EXPIRE_SECONDS));
+        Assert.assertFalse(redisService.isExists(cacheKey));
+        Assert.assertNull(stockCounter.queryStock(cacheKey));
+    }
+
+    private void clearStock() {
+        redisService.remove(cacheKey);
+        redisService.remove(SegmentedStockCounter.ledgerKey(cacheKey));
+        redisService.remove(Constants.RedisKey.STOCK_SEGMENT_COUNT_KEY + cacheKey);
+        redisService.remove(Constants.RedisKey.STOCK_SEGMENT_SOLD_OUT_KEY + cacheKey);
+        for (int segment = 0; segment < SEGMENT_COUNT; segment++) {
+            String segmentKey = "{" + cacheKey + Constants.UNDERLINE + segment + "}";
+            redisService.remove(segmentKey);
+            redisService.remove(SegmentedStockCounter.ledgerKey(segmentKey));
+        }
+    }
+
+}
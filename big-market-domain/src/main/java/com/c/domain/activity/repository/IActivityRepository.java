@@ -7,6 +7,7 @@ import com.c.domain.activity.model.vo.ActivitySkuStockKeyVO;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 抽奖活动仓储接口
@@ -91,6 +92,13 @@ public interface IActivityRepository {
      */
     void cacheActivitySkuStockCount(String cacheKey, Integer stockCount);
 
+    /**
+     * 批量预热活动 SKU 缓存库存（已存在则跳过，单次 Pipeline 提交）
+     *
+     * @param cacheKeyStockCountMap 缓存 Key - 物理剩余库存
+     */
+    void cacheActivitySkuStockCount(Map<String, Integer> cacheKeyStockCountMap);
+
     /**
      * 执行原子预扣减库存
      *
@@ -191,6 +199,13 @@ public interface IActivityRepository {
      */
     List<ActivitySkuEntity> queryActivitySkuListByActivityId(Long activityId);
 
+    /**
+     * 查询处于开启状态且未结束的活动 ID 列表
+     *
+     * @return 活动 ID 集合
+     */
+    List<Long> queryOpenActivityIdList();
+
     /**
      * 查询用户当日累计参与次数
      *
@@ -8,7 +8,9 @@ import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 活动军械库服务实现类 (Activity Armory Service)
@@ -63,11 +65,15 @@ public class ActivityArmory implements IActivityArmory, IActivityDispatch {
         List<ActivitySkuEntity> activitySkuEntities =
                 activityRepository.queryActivitySkuListByActivityId(activityId);
 
+        // 预热活动 SKU 库存【批量 Pipeline 提交，已存在的库存不覆盖】
+        Map<String, Integer> cacheKeyStockCountMap = new HashMap<>();
         for (ActivitySkuEntity activitySkuEntity : activitySkuEntities) {
-            cacheActivitySkuStockCount(activitySkuEntity.getSku(), activitySkuEntity.getStockCountSurplus());
+            cacheKeyStockCountMap.put(Constants.RedisKey.ACTIVITY_SKU_STOCK_COUNT_KEY + activitySkuEntity.getSku(),
+                    activitySkuEntity.getStockCountSurplus());
             // 预热活动次数【查询时预热到缓存】
             activityRepository.queryRaffleActivityCountByActivityCountId(activitySkuEntity.getActivityCountId());
         }
+        activityRepository.cacheActivitySkuStockCount(cacheKeyStockCountMap);
 
         // 预热活动【查询时预热到缓存】
         activityRepository.queryRaffleActivityByActivityId(activityId);
@@ -75,6 +81,11 @@ public class ActivityArmory implements IActivityArmory, IActivityDispatch {
         return true;
     }
 
+    @Override
+    public List<Long> queryArmoryActivityIdList() {
+        return activityRepository.queryOpenActivityIdList();
+    }
+
     /**
      * 内部方法：缓存活动 SKU 库存数量
      *
@@ -1,5 +1,7 @@
 package com.c.domain.activity.service.armory;
 
+import java.util.List;
+
 /**
  * 活动军械库接口 (Activity Armory Interface)
  * 1. 活动战备 (Preparation)：在活动正式开始前，将复杂的活动 SKU 配置从持久层（MySQL）装配到高速缓存层（Redis）。
@@ -27,4 +29,12 @@ public interface IActivityArmory {
     boolean assembleActivitySku(Long sku);
 
     boolean assembleActivitySkuByActivityId(Long activityId);
+
+    /**
+     * 查询待装配的活动 ID 列表（状态开启且未结束）
+     * 用于应用启动预热阶段批量发现需要装配的活动。
+     *
+     * @return 活动 ID 集合
+     */
+    List<Long> queryArmoryActivityIdList();
 }
\ No newline at end of file
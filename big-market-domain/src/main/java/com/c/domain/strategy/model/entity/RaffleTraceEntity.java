@@ -0,0 +1,42 @@
+package com.c.domain.strategy.model.entity;
+
+import com.c.domain.strategy.model.vo.RaffleTraceStageVO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 抽奖追踪实体
+ * 记录单次抽奖各阶段的耗时与决策，结束后写入追踪环形缓冲区，仅采样或慢请求输出日志。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RaffleTraceEntity {
+
+    /** 入口标识（如 draw） */
+    private String entry;
+
+    /** 用户ID */
+    private String userId;
+
+    /** 开始时间（毫秒时间戳） */
+    private long startTime;
+
+    /** 总耗时（微秒） */
+    private long costMicros;
+
+    /** 是否异常结束 */
+    private boolean error;
+
+    /** 阶段明细（按执行顺序） */
+    private List<RaffleTraceStageVO> stages;
+
+}
@@ -0,0 +1,44 @@
+package com.c.domain.strategy.model.vo;
+
+import lombok.Getter;
+
+/**
+ * 值对象：抽奖上下文预取计划
+ * 职责：由策略的责任链与奖品决策树配置推导单次抽奖实际需要读取的用户数据，预取时只读取计划内的计数器。
+ * 1. 累计抽奖次数：责任链挂载权重规则且权重配置非空时需要。
+ * 2. 当日抽奖次数：任一奖品决策树包含次数锁节点时需要。
+ * 约束：对象创建后不可变，按策略缓存，随策略规则本地缓存一同失效。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Getter
+public class RaffleContextPlanVO {
+
+    /** 无需预取（普通策略） */
+    public static final RaffleContextPlanVO EMPTY = new RaffleContextPlanVO(false, false);
+
+    /** 是否需要用户累计抽奖次数 */
+    private final boolean totalRaffleCount;
+
+    /** 是否需要用户当日抽奖次数 */
+    private final boolean todayRaffleCount;
+
+    private RaffleContextPlanVO(boolean totalRaffleCount, boolean todayRaffleCount) {
+        this.totalRaffleCount = totalRaffleCount;
+        this.todayRaffleCount = todayRaffleCount;
+    }
+
+    public static RaffleContextPlanVO of(boolean totalRaffleCount, boolean todayRaffleCount) {
+        return totalRaffleCount || todayRaffleCount ? new RaffleContextPlanVO(totalRaffleCount, todayRaffleCount) :
+                EMPTY;
+    }
+
+    /**
+     * 是否无需预取
+     */
+    public boolean isEmpty() {
+        return !totalRaffleCount && !todayRaffleCount;
+    }
+
+}
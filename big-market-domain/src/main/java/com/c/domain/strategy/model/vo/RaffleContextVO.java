@@ -0,0 +1,41 @@
+package com.c.domain.strategy.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 值对象：单次抽奖上下文
+ * 职责：抽奖开始前按预取计划单次 Redis 批量读取责任链与决策树所需的用户数据，节点从上下文读取而非逐个访问 Redis。
+ * 约束：仅在当前抽奖线程内有效，由 {@code RaffleContextHolder} 绑定与释放；未纳入预取计划的字段为 null，节点回退到仓储查询。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RaffleContextVO {
+
+    /** 用户ID */
+    private String userId;
+
+    /** 策略ID */
+    private Long strategyId;
+
+    /** 用户累计抽奖次数（权重规则） */
+    private Integer totalRaffleCount;
+
+    /** 用户当日抽奖次数（次数锁规则） */
+    private Integer todayRaffleCount;
+
+    /**
+     * 判断上下文是否属于指定用户与策略
+     */
+    public boolean matches(String userId, Long strategyId) {
+        return this.strategyId.equals(strategyId) && this.userId.equals(userId);
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.c.domain.strategy.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 值对象：抽奖追踪阶段
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RaffleTraceStageVO {
+
+    /** 阶段标识（如 partake、rule_weight、rule_stock） */
+    private String stage;
+
+    /** 阶段决策（如 命中档位、放行/接管、奖品ID） */
+    private String decision;
+
+    /** 距上一阶段结束的耗时（微秒） */
+    private long costMicros;
+
+    @Override
+    public String toString() {
+        return stage + "(" + decision + "," + costMicros + "us)";
+    }
+
+}
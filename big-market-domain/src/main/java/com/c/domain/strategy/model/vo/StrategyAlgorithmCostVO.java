@@ -0,0 +1,33 @@
+package com.c.domain.strategy.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 值对象：装配算法代价评估结果
+ * 职责：承载代价模型对某一装配Key的选型结论（算法、预估内存占用、预估查找延迟）。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StrategyAlgorithmCostVO {
+
+    /** 装配算法 Bean 名称 */
+    private String algorithm;
+
+    /** 预估概率表常驻字节数 */
+    private Long estimatedBytes;
+
+    /** 预估单次查找延迟（纳秒） */
+    private Double estimatedLatencyNanos;
+
+    /** 是否在内存预算内 */
+    private Boolean withinBudget;
+
+}
@@ -0,0 +1,31 @@
+package com.c.domain.strategy.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 值对象：Walker/Vose 别名表
+ * 职责：以 O(n) 空间（n 为奖品数量）存储离散分布，实现 O(1) 抽样。
+ * 抽样方式：随机选列 i，再在 [0, rateRange) 内取随机数 r，r &lt; probabilities[i] 命中 awardIds[i]，否则命中 awardIds[aliases[i]]。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StrategyAwardAliasTableVO {
+
+    /** 列奖品ID */
+    private int[] awardIds;
+
+    /** 列接受阈值（以 rateRange 为单位） */
+    private int[] probabilities;
+
+    /** 别名列下标 */
+    private int[] aliases;
+
+}
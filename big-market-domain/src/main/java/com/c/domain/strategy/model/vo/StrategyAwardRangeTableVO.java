@@ -0,0 +1,28 @@
+package com.c.domain.strategy.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 值对象：O(LogN) 区间概率表
+ * 职责：以两个等长的原始数组存储累计区间，bounds 严格升序，配合 Arrays.binarySearch 定位奖品。
+ * 相比 TreeMap：无装箱、无红黑树节点，序列化后体积小，反序列化无需逐项解析重建。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StrategyAwardRangeTableVO {
+
+    /** 区间上限（累计值，严格升序） */
+    private int[] bounds;
+
+    /** 区间奖品ID，与 bounds 下标一一对应 */
+    private int[] awardIds;
+
+}
@@ -0,0 +1,40 @@
+package com.c.domain.strategy.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 值对象：奖品库存脚本扣减结果
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Getter
+@AllArgsConstructor
+public enum StrategyAwardStockStatusVO {
+
+    SUCCESS(0, "扣减成功"),
+    EMPTY(-1, "库存已耗尽"),
+    LOCK_FAILED(-2, "序号锁占位失败"),
+    ;
+
+    /** 脚本返回码（扣减成功时脚本返回剩余库存，任意非负值均视为成功） */
+    private final int code;
+
+    private final String info;
+
+    /**
+     * 通过脚本返回码还原扣减结果
+     *
+     * @param code 脚本返回码（非负为剩余库存）
+     * @return 扣减结果
+     */
+    public static StrategyAwardStockStatusVO fromCode(long code) {
+        if (code >= 0) return SUCCESS;
+        for (StrategyAwardStockStatusVO status : values()) {
+            if (status.code == code) return status;
+        }
+        throw new IllegalArgumentException("未知的库存脚本返回码: " + code);
+    }
+
+}
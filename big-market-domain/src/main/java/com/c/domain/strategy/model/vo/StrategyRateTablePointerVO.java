@@ -0,0 +1,45 @@
+package com.c.domain.strategy.model.vo;
+
+import com.c.types.common.Constants;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 值对象：策略概率表版本指针
+ * 职责：蓝绿装配的切换点。每次装配将量程与概率表写入新版本 Key，全部写完后以单次 SET 切换指针，
+ * 使“量程 + 概率表 + 算法”三者对读方原子可见；旧版本 Key 延迟过期，保障切换瞬间在途请求仍可读取。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StrategyRateTablePointerVO {
+
+    /** 当前生效的概率表版本号 */
+    private Long version;
+
+    /** 当前生效的装配算法 Bean 名称 */
+    private String algorithm;
+
+    /** 代价模型预估的概率表常驻字节数 */
+    private Long estimatedBytes;
+
+    /** 本抽奖池包含的奖品ID（升序），供增量装配判定池归属 */
+    private int[] awardIds;
+
+    /**
+     * 拼接版本化存储 Key（策略装配Key_v版本号）
+     *
+     * @param key 策略装配唯一标识
+     * @return 版本化存储 Key
+     */
+    public String tableKey(String key) {
+        return key + Constants.UNDERLINE + "v" + version;
+    }
+
+}
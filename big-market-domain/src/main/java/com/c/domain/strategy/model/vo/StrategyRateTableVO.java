@@ -0,0 +1,48 @@
+package com.c.domain.strategy.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 值对象：策略概率查找表（JVM 本地只读副本）
+ * 职责：承载装配完成后的概率表快照，抽奖调度直接在内存中完成寻址，无需访问 Redis。
+ * 约束：对象创建后不可变（数组仅在构建时写入），可被多线程无锁并发读取。
+ * 1. O1：table 为长度等于 rateRange 的打散索引表，table[random] 即奖品 ID。
+ * 2. OLogN：table 为升序区间上限数组，awardIds 与之一一对应，二分查找定位奖品。
+ * 3. Alias：table 为各列接受阈值，awardIds 为列奖品，aliases 为别名列下标。
+ * 4. Deck：table 为预洗牌牌堆，seed 与发牌轮次共同决定每一轮的发牌顺序。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class StrategyRateTableVO {
+
+    /** 版本化存储 Key（策略装配Key_v版本号） */
+    private final String key;
+
+    /** 概率表版本号：对应 Redis 中的版本计数，用于失效判定 */
+    private final long version;
+
+    /** 装配算法 Bean 名称 */
+    private final String algorithm;
+
+    /** 概率量程（随机数上限） */
+    private final int rateRange;
+
+    /** 查找表：O1 为索引-奖品映射，OLogN 为区间上限，Alias 为列接受阈值 */
+    private final int[] table;
+
+    /** 奖品ID：OLogN/Alias 使用，与 table 下标一一对应 */
+    private final int[] awardIds;
+
+    /** 别名列下标：仅 Alias 使用 */
+    private final int[] aliases;
+
+    /** 轮次置换种子：仅 Deck 使用 */
+    private final long seed;
+
+}
@@ -0,0 +1,27 @@
+package com.c.domain.strategy.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 值对象：策略概率表版本变更消息
+ * 职责：装配完成后经 Redis Pub/Sub 广播至集群各节点，驱动 JVM 本地概率表副本失效。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StrategyRateTableVersionVO {
+
+    /** 策略装配唯一标识 */
+    private String key;
+
+    /** 最新版本号 */
+    private Long version;
+
+}
@@ -0,0 +1,74 @@
+package com.c.domain.strategy.model.vo;
+
+import com.c.types.common.Constants;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 值对象：黑名单规则编译结果
+ * 职责：将 "101:user001,user002" 预解析为接管奖品ID + 用户哈希集合，抽奖时 O(1) 判定是否命中。
+ * 约束：对象创建后不可变，可被多线程无锁并发读取。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Getter
+public class StrategyRuleBlacklistCompiledVO {
+
+    /** 未配置黑名单规则（负缓存） */
+    public static final StrategyRuleBlacklistCompiledVO EMPTY = new StrategyRuleBlacklistCompiledVO(null,
+            Collections.emptySet());
+
+    /** 命中黑名单时接管返回的奖品ID */
+    private final Integer awardId;
+
+    /** 黑名单用户集合 */
+    private final Set<String> userIds;
+
+    private StrategyRuleBlacklistCompiledVO(Integer awardId, Set<String> userIds) {
+        this.awardId = awardId;
+        this.userIds = userIds;
+    }
+
+    /**
+     * 编译黑名单规则配置
+     *
+     * @param ruleValue 规则配置值
+     * @return 编译结果，配置为空或格式错误返回 {@link #EMPTY}
+     */
+    public static StrategyRuleBlacklistCompiledVO compile(String ruleValue) {
+        if (StringUtils.isBlank(ruleValue)) return EMPTY;
+
+        String[] configParts = ruleValue.split(Constants.COLON);
+        if (configParts.length < 2) return EMPTY;
+
+        Set<String> userIds = new HashSet<>();
+        for (String userId : configParts[1].split(Constants.SPLIT)) {
+            if (StringUtils.isNotBlank(userId)) userIds.add(userId.trim());
+        }
+        return new StrategyRuleBlacklistCompiledVO(Integer.parseInt(configParts[0].trim()),
+                Collections.unmodifiableSet(userIds));
+    }
+
+    /**
+     * 是否未配置黑名单
+     */
+    public boolean isEmpty() {
+        return null == awardId;
+    }
+
+    /**
+     * 判定用户是否命中黑名单
+     *
+     * @param userId 用户ID
+     * @return true-命中
+     */
+    public boolean contains(String userId) {
+        return userIds.contains(userId);
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.c.domain.strategy.model.vo;
+
+import com.c.types.common.Constants;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 值对象：权重规则编译结果
+ * 职责：将 "4000:101,102 5000:101,102,103" 预解析为升序阈值数组，抽奖时二分查找用户次数命中的最高档位。
+ * 约束：对象创建后不可变，可被多线程无锁并发读取。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Getter
+public class StrategyRuleWeightCompiledVO {
+
+    /** 未配置权重规则（负缓存） */
+    public static final StrategyRuleWeightCompiledVO EMPTY = new StrategyRuleWeightCompiledVO(new long[0],
+            new String[0]);
+
+    /** 权重阈值（升序） */
+    private final long[] thresholds;
+
+    /** 阈值对应的权重值（即权重抽奖池装配Key后缀），与 thresholds 下标一一对应 */
+    private final String[] ruleWeightValues;
+
+    private StrategyRuleWeightCompiledVO(long[] thresholds, String[] ruleWeightValues) {
+        this.thresholds = thresholds;
+        this.ruleWeightValues = ruleWeightValues;
+    }
+
+    /**
+     * 编译权重规则配置
+     *
+     * @param ruleValue 规则配置值
+     * @return 编译结果，配置为空返回 {@link #EMPTY}
+     */
+    public static StrategyRuleWeightCompiledVO compile(String ruleValue) {
+        if (StringUtils.isBlank(ruleValue)) return EMPTY;
+
+        Map<Long, String> sorted = new TreeMap<>();
+        for (String group : ruleValue.split(Constants.SPACE)) {
+            if (StringUtils.isBlank(group)) continue;
+            String[] parts = group.split(Constants.COLON);
+            if (parts.length != 2) continue;
+            sorted.put(Long.parseLong(parts[0].trim()), parts[0].trim());
+        }
+        if (sorted.isEmpty()) return EMPTY;
+
+        long[] thresholds = new long[sorted.size()];
+        String[] ruleWeightValues = new String[sorted.size()];
+        int i = 0;
+        for (Map.Entry<Long, String> entry : sorted.entrySet()) {
+            thresholds[i] = entry.getKey();
+            ruleWeightValues[i++] = entry.getValue();
+        }
+        return new StrategyRuleWeightCompiledVO(thresholds, ruleWeightValues);
+    }
+
+    /**
+     * 是否未配置任何档位
+     */
+    public boolean isEmpty() {
+        return thresholds.length == 0;
+    }
+
+    /**
+     * 匹配不超过用户抽奖次数的最高档位
+     *
+     * @param raffleCount 用户累计抽奖次数
+     * @return 命中档位的权重值，未达任何门槛返回null
+     */
+    public String match(long raffleCount) {
+        int index = Arrays.binarySearch(thresholds, raffleCount);
+        if (index < 0) index = -index - 2;
+        return index < 0 ? null : ruleWeightValues[index];
+    }
+
+}
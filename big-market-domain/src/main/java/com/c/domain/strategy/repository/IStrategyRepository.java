@@ -8,7 +8,6 @@ import com.c.domain.strategy.model.vo.*;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableMap;
 
 /**
  * 策略领域仓储接口
@@ -81,22 +80,38 @@ public interface IStrategyRepository {
     // ========================================================================
 
     /**
-     * 存储概率查找表（O(1)算法）
+     * 存储概率查找表（O(1)算法），量程即表长
      *
-     * @param key       策略装配唯一标识
-     * @param rateRange 概率总量程
-     * @param table     随机索引-奖品ID映射表
+     * @param key   策略装配唯一标识
+     * @param table 随机索引-奖品ID查找表（下标即随机索引）
      */
-    void storeStrategyAwardSearchRateTable(String key, Integer rateRange, Map<Integer, Integer> table);
+    void storeStrategyAwardSearchRateTable(String key, int[] table);
 
     /**
      * 存储区间概率查找表（O(LogN)算法）
      *
-     * @param key       策略装配唯一标识
-     * @param rateRange 总概率量程
-     * @param rangeMap  区间上限-奖品ID有序映射表
+     * @param key        策略装配唯一标识
+     * @param rateRange  总概率量程
+     * @param rangeTable 区间上限/奖品ID数组对
      */
-    void storeStrategyAwardSearchRateTable(String key, Integer rateRange, NavigableMap<Integer, Integer> rangeMap);
+    void storeStrategyAwardRangeTable(String key, Integer rateRange, StrategyAwardRangeTableVO rangeTable);
+
+    /**
+     * 存储别名概率表（Alias算法）
+     *
+     * @param key        策略装配唯一标识
+     * @param rateRange  单列概率量程
+     * @param aliasTable 别名表
+     */
+    void storeStrategyAwardAliasTable(String key, Integer rateRange, StrategyAwardAliasTableVO aliasTable);
+
+    /**
+     * 获取别名概率表（Alias算法）
+     *
+     * @param key 策略装配Key
+     * @return 别名表
+     */
+    StrategyAwardAliasTableVO getStrategyAwardAliasTable(String key);
 
     /**
      * 获取指定策略的随机数寻址上限
@@ -107,21 +122,100 @@ public interface IStrategyRepository {
     int getRateRange(String key);
 
     /**
-     * 执行O(1)随机索引寻址
+     * 获取O(LogN)区间查找表
+     *
+     * @param key 策略装配Key
+     * @return 区间上限/奖品ID数组对
+     */
+    StrategyAwardRangeTableVO getStrategyAwardRangeTable(String key);
+
+    /**
+     * 获取O(1)全量概率查找表（用于加载JVM本地副本）
+     *
+     * @param key 策略装配Key
+     * @return 随机索引-奖品ID查找表（下标即随机索引）
+     */
+    int[] getStrategyAwardSearchRateTable(String key);
+
+    /**
+     * 存储预洗牌牌堆（Deck算法），牌堆长度即量程
+     *
+     * @param key  策略装配唯一标识
+     * @param deck 已洗牌的奖品ID牌堆
+     * @param seed 轮次置换种子
+     */
+    void storeStrategyAwardDeckTable(String key, int[] deck, long seed);
+
+    /**
+     * 获取预洗牌牌堆（用于加载JVM本地副本）
+     *
+     * @param key 策略装配Key
+     * @return 奖品ID牌堆
+     */
+    int[] getStrategyAwardDeckTable(String key);
+
+    /**
+     * 获取牌堆轮次置换种子（用于加载JVM本地副本）
+     *
+     * @param key 策略装配Key
+     * @return 轮次置换种子
+     */
+    long getStrategyAwardDeckSeed(String key);
+
+    /**
+     * 推进牌堆发牌游标（单次原子 INCR）
+     *
+     * @param key 策略装配Key（版本化）
+     * @return 自增后的游标值（从1开始）
+     */
+    long nextStrategyAwardDeckCursor(String key);
+
+    /**
+     * 申请新的概率表版本号（蓝绿装配：新版本数据写入独立 Key）
+     *
+     * @param key 策略装配Key
+     * @return 新版本号
+     */
+    long nextStrategyRateTableVersion(String key);
+
+    /**
+     * 原子切换概率表版本指针，旧版本延迟清理，并广播版本变更（驱动JVM本地副本失效）
      *
      * @param key     策略装配Key
-     * @param rateKey 随机生成的索引值
-     * @return 命中的奖品ID
+     * @param pointer 新版本指针
      */
-    Integer getStrategyAwardAssemble(String key, int rateKey);
+    void switchStrategyRateTable(String key, StrategyRateTablePointerVO pointer);
 
     /**
-     * 获取O(LogN)预排序区间查找表
+     * 查询当前生效的概率表版本指针
      *
      * @param key 策略装配Key
-     * @return 有序区间映射表
+     * @return 版本指针，未装配返回null
+     */
+    StrategyRateTablePointerVO queryStrategyRateTablePointer(String key);
+
+    /**
+     * 清理策略装配相关的配置缓存（策略主体、奖品列表、奖品单体、权重规则），用于配置变更后的增量装配
+     *
+     * @param strategyId 策略ID
+     * @param awardId    发生变更的奖品ID
+     */
+    void clearStrategyArmoryCache(Long strategyId, Integer awardId);
+
+    /**
+     * 持久化概率表本地快照（内存映射文件），供重启后免 Redis 读取直接恢复
+     *
+     * @param key       策略装配Key
+     * @param rateTable 概率表副本
+     */
+    void storeStrategyRateTableSnapshot(String key, StrategyRateTableVO rateTable);
+
+    /**
+     * 读取全部有效的概率表本地快照
+     *
+     * @return 策略装配Key -> 概率表副本
      */
-    NavigableMap<Integer, Integer> getRangeMap(String key);
+    Map<String, StrategyRateTableVO> queryStrategyRateTableSnapshot();
 
     // ========================================================================
     // 3. 决策树模型
@@ -135,26 +229,16 @@ public interface IStrategyRepository {
      */
     RuleTreeVO queryRuleTreeVOByTreeId(String treeId);
 
-    /**
-     * 查询奖品挂载的规则模型标识
-     *
-     * @param strategyId 策略ID
-     * @param awardId    奖品ID
-     * @return 奖品规则模型VO
-     */
-    StrategyAwardRuleModelVO queryStrategyAwardRuleModel(Long strategyId, Integer awardId);
-
     // ========================================================================
     // 4. 库存管理与异步一致性
     // ========================================================================
 
     /**
-     * 初始化奖品库存至Redis原子计数器
+     * 批量初始化奖品库存至Redis原子计数器（已存在则跳过，单次Pipeline提交）
      *
-     * @param cacheKey   库存缓存Key
-     * @param awardCount 库存总量
+     * @param cacheKeyAwardCountMap 库存缓存Key-库存总量
      */
-    void cacheStrategyAwardCount(String cacheKey, Integer awardCount);
+    void cacheStrategyAwardCount(Map<String, Integer> cacheKeyAwardCountMap);
 
     /**
      * 分布式原子库存扣减（带过期策略）
@@ -173,6 +257,15 @@ public interface IStrategyRepository {
      */
     Boolean subtractAwardStock(String cacheKey);
 
+    /**
+     * 脚本化库存扣减：单次 EVALSHA 原子完成 库存扣减 + 库存不足回补 + 序号锁占位
+     *
+     * @param cacheKey    库存标识Key
+     * @param endDateTime 活动结束时间（序号锁过期时间）
+     * @return 扣减结果
+     */
+    StrategyAwardStockStatusVO subtractAwardStockByScript(String cacheKey, Date endDateTime);
+
     /**
      * 写入库存消耗异步流水队列
      *
@@ -216,6 +309,16 @@ public interface IStrategyRepository {
      */
     Integer queryTodayUserRaffleCount(String userId, Long strategyId);
 
+    /**
+     * 预取单次抽奖上下文（仅读取预取计划内的用户累计/当日抽奖次数），单次 Redis 批量读取，缺失项回源补齐
+     *
+     * @param userId            用户ID
+     * @param strategyId        策略ID
+     * @param raffleContextPlan 预取计划
+     * @return 抽奖上下文
+     */
+    RaffleContextVO queryRaffleContext(String userId, Long strategyId, RaffleContextPlanVO raffleContextPlan);
+
     /**
      * 查询奖品规则锁定门槛次数
      *
@@ -240,20 +343,4 @@ public interface IStrategyRepository {
      * @return 权重规则VO列表
      */
     List<RuleWeightVO> queryAwardRuleWeight(Long strategyId);
-
-    /**
-     * 缓存策略装配算法名称
-     *
-     * @param key               缓存键
-     * @param algorithmBeanName 算法Bean名称
-     */
-    void cacheStrategyArmoryAlgorithm(String key, String algorithmBeanName);
-
-    /**
-     * 从缓存查询策略装配算法名称
-     *
-     * @param key 缓存键
-     * @return 算法Bean名称
-     */
-    String queryStrategyArmoryAlgorithmFromCache(String key);
 }
\ No newline at end of file
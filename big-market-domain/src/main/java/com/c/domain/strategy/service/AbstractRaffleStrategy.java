@@ -1,10 +1,13 @@
 package com.c.domain.strategy.service;
 
 import com.c.domain.strategy.model.entity.*;
+import com.c.domain.strategy.model.vo.RaffleContextPlanVO;
 import com.c.domain.strategy.repository.IStrategyRepository;
 import com.c.domain.strategy.service.armory.IStrategyDispatch;
+import com.c.domain.strategy.service.raffle.RaffleContextHolder;
 import com.c.domain.strategy.service.rule.chain.factory.DefaultChainFactory;
 import com.c.domain.strategy.service.rule.tree.factory.DefaultTreeFactory;
+import com.c.domain.strategy.service.trace.RaffleTraceHolder;
 import com.c.types.enums.ResponseCode;
 import com.c.types.exception.AppException;
 import lombok.extern.slf4j.Slf4j;
@@ -62,36 +65,56 @@ public abstract class AbstractRaffleStrategy implements IRaffleStrategy, IRaffle
             throw new AppException(ResponseCode.ILLEGAL_PARAMETER);
         }
 
-        // 2. 责任链阶段：执行前置过滤（如黑名单、权重校验）
+        // 2. 上下文预取：仅当责任链/决策树需要用户计数器时，单次 Redis 批量读取并绑定至当前线程供各节点读取
+        RaffleContextPlanVO raffleContextPlan = queryRaffleContextPlan(strategyId);
+        if (!raffleContextPlan.isEmpty()) {
+            RaffleContextHolder.bind(strategyRepository.queryRaffleContext(userId, strategyId, raffleContextPlan));
+            RaffleTraceHolder.stage("raffle_context", strategyId);
+        }
+        try {
+            return doPerformRaffle(userId, strategyId, endDateTime);
+        } finally {
+            RaffleContextHolder.unbind();
+        }
+    }
+
+    /**
+     * 执行责任链 + 决策树编排
+     */
+    private RaffleAwardEntity doPerformRaffle(String userId, Long strategyId, Date endDateTime) {
+        // 1. 责任链阶段：执行前置过滤（如黑名单、权重校验）
         DefaultChainFactory.StrategyAwardVO chainStrategyAwardVO = raffleLogicChain(userId, strategyId);
         Integer awardId = chainStrategyAwardVO.getAwardId();
 
-        log.info("抽奖策略-责任链结束 userId:{} strategyId:{} awardId:{} logicModel:{}", userId, strategyId, awardId,
+        log.debug("抽奖策略-责任链结束 userId:{} strategyId:{} awardId:{} logicModel:{}", userId, strategyId, awardId,
                 chainStrategyAwardVO.getLogicModel());
+        RaffleTraceHolder.stage("rule_chain", chainStrategyAwardVO.getLogicModel() + ":" + awardId);
 
         // 若非默认随机逻辑（如命中黑名单），直接接管结果并返回，不再走后续决策树
         if (!DefaultChainFactory.LogicModel.RULE_DEFAULT
                 .getCode()
                 .equals(chainStrategyAwardVO.getLogicModel())) {
-            return buildRaffleAwardEntity(strategyId, awardId, chainStrategyAwardVO.getAwardRuleValue());
+            return buildRaffleAwardEntity(userId, strategyId, awardId, chainStrategyAwardVO.getAwardRuleValue());
         }
 
-        // 3. 决策树阶段：执行中后置校验（如库存、次数限制、兜底规则）
+        // 2. 决策树阶段：执行中后置校验（如库存、次数限制、兜底规则）
         DefaultTreeFactory.StrategyAwardVO treeStrategyAwardVO = raffleLogicTree(userId, strategyId, awardId,
                 endDateTime);
         awardId = treeStrategyAwardVO.getAwardId();
 
-        log.info("抽奖策略-决策树结束 userId:{} strategyId:{} awardId:{} ruleValue:{}", userId, strategyId, awardId,
+        log.debug("抽奖策略-决策树结束 userId:{} strategyId:{} awardId:{} ruleValue:{}", userId, strategyId, awardId,
                 treeStrategyAwardVO.getAwardRuleValue());
+        RaffleTraceHolder.stage("rule_tree", awardId);
 
-        // 4. 封装并返回最终结果
-        return buildRaffleAwardEntity(strategyId, awardId, treeStrategyAwardVO.getAwardRuleValue());
+        // 3. 封装并返回最终结果
+        return buildRaffleAwardEntity(userId, strategyId, awardId, treeStrategyAwardVO.getAwardRuleValue());
     }
 
     /**
      * 封装奖品实体对象
      */
-    private RaffleAwardEntity buildRaffleAwardEntity(Long strategyId, Integer awardId, String awardConfig) {
+    private RaffleAwardEntity buildRaffleAwardEntity(String userId, Long strategyId, Integer awardId,
+                                                     String awardConfig) {
         StrategyAwardEntity strategyAwardEntity = strategyRepository.queryStrategyAwardEntity(strategyId, awardId);
         return RaffleAwardEntity
                 .builder()
@@ -102,6 +125,9 @@ public abstract class AbstractRaffleStrategy implements IRaffleStrategy, IRaffle
                 .build();
     }
 
+    /** 获取抽奖上下文预取计划（由子类按已编译的责任链与决策树配置提供） */
+    protected abstract RaffleContextPlanVO queryRaffleContextPlan(Long strategyId);
+
     /** 执行责任链逻辑（由子类实现） */
     public abstract DefaultChainFactory.StrategyAwardVO raffleLogicChain(String userId, Long strategyId);
 
@@ -3,7 +3,9 @@ package com.c.domain.strategy.service.armory;
 import com.c.domain.strategy.model.entity.StrategyAwardEntity;
 import com.c.domain.strategy.model.entity.StrategyEntity;
 import com.c.domain.strategy.model.entity.StrategyRuleEntity;
+import com.c.domain.strategy.model.vo.StrategyRateTablePointerVO;
 import com.c.domain.strategy.repository.IStrategyRepository;
+import com.c.domain.strategy.service.rule.StrategyRuleLocalCache;
 import com.c.types.common.Constants;
 import com.c.types.enums.ResponseCode;
 import com.c.types.exception.AppException;
@@ -11,12 +13,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Resource;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * 抽奖策略算法抽象基类
@@ -31,6 +36,9 @@ public abstract class AbstractStrategyAlgorithm implements IStrategyArmory, IStr
     @Resource
     protected IStrategyRepository repository;
 
+    @Resource
+    private StrategyRuleLocalCache ruleLocalCache;
+
     @Override
     public boolean assembleLotteryStrategy(Long strategyId) {
         log.info("开始装配抽奖策略：strategyId = {}", strategyId);
@@ -39,88 +47,196 @@ public abstract class AbstractStrategyAlgorithm implements IStrategyArmory, IStr
         List<StrategyAwardEntity> strategyAwardEntities = repository.queryStrategyAwardList(strategyId);
         if (null == strategyAwardEntities || strategyAwardEntities.isEmpty()) return false;
 
-        // 2. 缓存预热：初始化奖品库存（全量/权重池共用库存）
+        // 2. 缓存预热：批量初始化奖品库存（全量/权重池共用库存，单次Pipeline提交）
+        Map<String, Integer> cacheKeyAwardCountMap = new HashMap<>();
         for (StrategyAwardEntity strategyAward : strategyAwardEntities) {
-            cacheStrategyAwardCount(strategyId, strategyAward.getAwardId(), strategyAward.getAwardCount());
+            cacheKeyAwardCountMap.put(Constants.RedisKey.STRATEGY_AWARD_COUNT_KEY + strategyId + Constants.UNDERLINE +
+                    strategyAward.getAwardId(), strategyAward.getAwardCount());
         }
+        repository.cacheStrategyAwardCount(cacheKeyAwardCountMap);
 
         // 3. 全量装配：默认抽奖池（Key = 策略ID）
         calculateAndArmory(String.valueOf(strategyId), strategyAwardEntities);
 
-        // 4. 权重规则装配：处理专属抽奖池
+        // 4. 权重规则装配：按权重分组装配专属抽奖池，每档权重独立计算量程（Key = 策略ID_权重值）
+        Map<String, List<Integer>> ruleValueGroup = queryRuleValueGroup(strategyId);
+        for (Map.Entry<String, List<Integer>> entry : ruleValueGroup.entrySet()) {
+            calculateAndArmory(ruleWeightPoolKey(strategyId, entry.getKey()), filterGroupAwards(strategyAwardEntities,
+                    new HashSet<>(entry.getValue())));
+        }
+
+        // 5. 规则预编译：刷新权重/黑名单规则本地缓存，抽奖时不再查库解析
+        ruleLocalCache.refresh(strategyId);
+
+        return true;
+    }
+
+    @Override
+    public boolean assembleLotteryStrategyByAwardId(Long strategyId, Integer awardId) {
+        log.info("开始增量装配抽奖策略：strategyId = {} awardId = {}", strategyId, awardId);
+
+        // 1. 清理策略配置缓存，确保读取到变更后的奖品概率与权重池配置
+        repository.clearStrategyArmoryCache(strategyId, awardId);
+
+        List<StrategyAwardEntity> strategyAwardEntities = repository.queryStrategyAwardList(strategyId);
+        if (null == strategyAwardEntities || strategyAwardEntities.isEmpty()) return false;
+
+        // 2. 默认抽奖池包含全部奖品，必然受影响
+        calculateAndArmory(String.valueOf(strategyId), strategyAwardEntities);
+
+        // 3. 权重池：仅重建变更后包含该奖品、或当前生效版本包含该奖品（被移出）的池，其余池保持不动
+        Map<String, List<Integer>> ruleValueGroup = queryRuleValueGroup(strategyId);
+        int rebuildCount = 0;
+        for (Map.Entry<String, List<Integer>> entry : ruleValueGroup.entrySet()) {
+            String key = ruleWeightPoolKey(strategyId, entry.getKey());
+            Set<Integer> memberAwardIds = new HashSet<>(entry.getValue());
+            if (!memberAwardIds.contains(awardId) && !isArmoredWithAward(key, awardId)) continue;
+
+            calculateAndArmory(key, filterGroupAwards(strategyAwardEntities, memberAwardIds));
+            rebuildCount++;
+        }
+
+        ruleLocalCache.refresh(strategyId);
+        log.info("增量装配完成：strategyId = {} awardId = {} 重建权重池 {}/{}", strategyId, awardId, rebuildCount,
+                ruleValueGroup.size());
+        return true;
+    }
+
+    /**
+     * 查询策略权重规则分组（权重值 -> 奖品ID列表），未配置权重规则返回空映射
+     *
+     * @param strategyId 策略ID
+     * @return 权重分组
+     */
+    private Map<String, List<Integer>> queryRuleValueGroup(Long strategyId) {
         StrategyEntity strategyEntity = repository.queryStrategyEntityByStrategyId(strategyId);
-        if (null == strategyEntity || StringUtils.isBlank(strategyEntity.getRuleWeight())) return true;
+        if (null == strategyEntity || StringUtils.isBlank(strategyEntity.getRuleWeight())) return Collections.emptyMap();
 
-        String ruleWeight = strategyEntity.getRuleWeight();
-        StrategyRuleEntity strategyRule = repository.queryStrategyRule(strategyId, ruleWeight);
+        StrategyRuleEntity strategyRule = repository.queryStrategyRule(strategyId, strategyEntity.getRuleWeight());
         if (null == strategyRule) {
             throw new AppException(ResponseCode.STRATEGY_RULE_WEIGHT_IS_NULL);
         }
+        return strategyRule.getRuleValueGroup();
+    }
 
-        // 5. 按权重分组装配：每档权重独立计算量程（Key = 策略ID_权重值）
-        Map<String, List<Integer>> ruleValueGroup = strategyRule.getRuleValueGroup();
-        for (String key : ruleValueGroup.keySet()) {
-            List<Integer> awardIds = ruleValueGroup.get(key);
-            // 过滤当前权重对应的奖品子集
-            List<StrategyAwardEntity> groupAwards = strategyAwardEntities
-                    .stream()
-                    .filter(entity -> awardIds.contains(entity.getAwardId()))
-                    .collect(Collectors.toList());
-
-            // 权重池独立计算量程并装配
-            calculateAndArmory(String
-                    .valueOf(strategyId)
-                    .concat(Constants.UNDERLINE)
-                    .concat(key), groupAwards);
+    /**
+     * 过滤权重池奖品子集（集合判定归属，保持原奖品顺序）
+     *
+     * @param strategyAwardEntities 策略全部奖品
+     * @param memberAwardIds        权重池奖品ID集合
+     * @return 权重池奖品列表
+     */
+    private List<StrategyAwardEntity> filterGroupAwards(List<StrategyAwardEntity> strategyAwardEntities,
+                                                        Set<Integer> memberAwardIds) {
+        List<StrategyAwardEntity> groupAwards = new ArrayList<>(memberAwardIds.size());
+        for (StrategyAwardEntity strategyAward : strategyAwardEntities) {
+            if (memberAwardIds.contains(strategyAward.getAwardId())) groupAwards.add(strategyAward);
         }
+        return groupAwards;
+    }
 
-        return true;
+    /**
+     * 判断当前生效版本的抽奖池是否包含指定奖品（未装配或无归属记录时视为包含，按需重建）
+     *
+     * @param key     策略装配唯一标识
+     * @param awardId 奖品ID
+     * @return true-包含
+     */
+    private boolean isArmoredWithAward(String key, Integer awardId) {
+        StrategyRateTablePointerVO pointer = repository.queryStrategyRateTablePointer(key);
+        if (null == pointer || null == pointer.getAwardIds()) return true;
+        return Arrays.binarySearch(pointer.getAwardIds(), awardId) >= 0;
+    }
+
+    /**
+     * 拼接权重抽奖池装配Key（策略ID_权重值）
+     */
+    private String ruleWeightPoolKey(Long strategyId, String ruleWeightValue) {
+        return String
+                .valueOf(strategyId)
+                .concat(Constants.UNDERLINE)
+                .concat(ruleWeightValue);
     }
 
     /**
      * 封装概率计算+算法装配核心逻辑
+     * 全程基于定点缩放后的 long 权重计算，避免 BigDecimal 在大量程装配时的对象分配
      *
      * @param key    策略装配唯一标识
      * @param awards 奖品配置集合
      */
     private void calculateAndArmory(String key, List<StrategyAwardEntity> awards) {
-        // 1. 计算奖品集合总概率（权重池总概率可不等于1.0）
-        BigDecimal totalRate = awards
+        // 1. 定点缩放：以最大小数位数为精度，将概率转换为整数权重（如 0.0001 -> 1，精度 4 位）
+        int scale = awards
                 .stream()
                 .map(StrategyAwardEntity::getAwardRate)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                .mapToInt(rate -> Math.max(rate.stripTrailingZeros().scale(), 0))
+                .max()
+                .orElse(0);
 
-        // 2. 获取最小有效概率（过滤0值，避免除零异常）
-        BigDecimal minRate = awards
-                .stream()
-                .map(StrategyAwardEntity::getAwardRate)
-                .filter(rate -> rate.compareTo(BigDecimal.ZERO) > 0)
-                .min(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
+        int size = awards.size();
+        long[] awardWeights = new long[size];
+        long totalWeight = 0;
+        long minWeight = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            long weight = awards
+                    .get(i)
+                    .getAwardRate()
+                    .movePointRight(scale)
+                    .longValue();
+            awardWeights[i] = weight;
+            totalWeight += weight;
+            // 获取最小有效权重（过滤0值，避免除零异常）
+            if (weight > 0) minWeight = Math.min(minWeight, weight);
+        }
 
-        // 3. 配置合法性校验：总概率/最小概率不可为0
-        if (totalRate.compareTo(BigDecimal.ZERO) <= 0 || minRate.compareTo(BigDecimal.ZERO) <= 0) {
+        // 2. 配置合法性校验：总权重/最小权重不可为0
+        if (totalWeight <= 0 || minWeight == Long.MAX_VALUE) {
             log.error("策略装配失败 Key:{}，概率配置非法（总概率/最小概率为0）", key);
             throw new AppException(ResponseCode.STRATEGY_CONFIG_ERROR);
         }
 
-        // 4. 动态计算量程：总概率/最小概率（向上取整，保证最小概率奖品至少1个格子）
-        BigDecimal rateRange = totalRate.divide(minRate, 0, RoundingMode.CEILING);
+        // 3. 动态计算量程：总权重/最小权重（向上取整，保证最小概率奖品至少1个格子）
+        long rateRange = (totalWeight + minWeight - 1) / minWeight;
+        if (rateRange > Integer.MAX_VALUE) {
+            log.error("策略装配失败 Key:{}，概率量程超限 rateRange:{}", key, rateRange);
+            throw new AppException(ResponseCode.STRATEGY_CONFIG_ERROR);
+        }
+
+        // 4. 计算各奖品占用格子数（向下取整，保底：有概率至少占1格）
+        int[] awardCounts = new int[size];
+        try {
+            for (int i = 0; i < size; i++) {
+                long count = Math.multiplyExact(rateRange, awardWeights[i]) / totalWeight;
+                awardCounts[i] = (int) (count == 0 && awardWeights[i] > 0 ? 1 : count);
+            }
+        } catch (ArithmeticException e) {
+            log.error("策略装配失败 Key:{}，概率精度过高导致权重溢出 scale:{}", key, scale);
+            throw new AppException(ResponseCode.STRATEGY_CONFIG_ERROR);
+        }
 
-        // 5. 调用子类具体装配算法（O1/OLogN）
-        armoryAlgorithm(key, awards, rateRange, totalRate);
+        // 5. 调用子类具体装配算法（O1/OLogN/Alias）
+        armoryAlgorithm(key, awards, awardCounts, (int) rateRange);
     }
 
     /**
-     * 抽象装配算法：子类实现O(1)/O(LogN)具体存储逻辑
+     * 抽象装配算法：子类实现具体存储逻辑
      *
      * @param key                   策略装配唯一标识
      * @param strategyAwardEntities 奖品配置列表
+     * @param awardCounts           各奖品占用格子数（与奖品列表下标一一对应）
      * @param rateRange             概率量程
-     * @param totalAwardRate        奖品总概率
      */
     protected abstract void armoryAlgorithm(String key, List<StrategyAwardEntity> strategyAwardEntities,
-                                            BigDecimal rateRange, BigDecimal totalAwardRate);
+                                            int[] awardCounts, int rateRange);
+
+    /**
+     * 加载已装配的概率表：本地副本未命中时按 Redis 当前生效版本指针加载
+     *
+     * @param key 策略装配唯一标识
+     * @return true-已就绪 false-Redis 无生效版本，需要装配
+     */
+    protected abstract boolean loadAssembled(String key);
 
     /**
      * 抽象调度算法：子类实现O(1)/O(LogN)具体抽奖寻址逻辑
@@ -150,11 +266,7 @@ public abstract class AbstractStrategyAlgorithm implements IStrategyArmory, IStr
      */
     @Override
     public Integer getRandomAwardId(Long strategyId, String ruleWeightValue) {
-        String key = String
-                .valueOf(strategyId)
-                .concat(Constants.UNDERLINE)
-                .concat(ruleWeightValue);
-        return dispatchAlgorithm(key);
+        return dispatchAlgorithm(ruleWeightPoolKey(strategyId, ruleWeightValue));
     }
 
     /**
@@ -172,15 +284,24 @@ public abstract class AbstractStrategyAlgorithm implements IStrategyArmory, IStr
     }
 
     /**
-     * 初始化奖品库存至Redis缓存
+     * 按活动ID加载已装配的策略全部抽奖池（默认池 + 各权重池，本地副本命中或从 Redis 生效版本加载）
+     * 任一抽奖池在 Redis 中无生效版本（如装配后新增的权重档位）即返回 false，由调用方整体装配；
+     * 全部加载成功时同步刷新规则本地缓存，预热完成后抽奖链路不再穿透 Redis/数据库。
      *
-     * @param strategyId 策略ID
-     * @param awardId    奖品ID
-     * @param awardCount 奖品库存数
+     * @param activityId 活动ID
+     * @return true-已就绪 false-未装配
      */
-    private void cacheStrategyAwardCount(Long strategyId, Integer awardId, Integer awardCount) {
-        String cacheKey = Constants.RedisKey.STRATEGY_AWARD_COUNT_KEY + strategyId + Constants.UNDERLINE + awardId;
-        repository.cacheStrategyAwardCount(cacheKey, awardCount);
+    @Override
+    public boolean loadAssembledByActivityId(Long activityId) {
+        Long strategyId = repository.queryStrategyIdByActivityId(activityId);
+        if (null == strategyId || !loadAssembled(String.valueOf(strategyId))) return false;
+
+        for (String ruleWeightValue : queryRuleValueGroup(strategyId).keySet()) {
+            if (!loadAssembled(ruleWeightPoolKey(strategyId, ruleWeightValue))) return false;
+        }
+
+        ruleLocalCache.refresh(strategyId);
+        return true;
     }
 
     /**
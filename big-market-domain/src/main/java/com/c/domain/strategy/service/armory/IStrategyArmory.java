@@ -25,6 +25,19 @@ public interface IStrategyArmory {
      */
     boolean assembleLotteryStrategy(Long strategyId);
 
+    /**
+     * 增量装配：单个奖品的概率或权重池归属变更后，仅重建受影响的抽奖池
+     * 执行流程：
+     * 1. 清理策略配置缓存，读取变更后的奖品与权重规则配置。
+     * 2. 重建默认抽奖池（包含全部奖品）。
+     * 3. 仅重建变更后包含该奖品、或当前生效版本包含该奖品的权重池，其余权重池保持不动。
+     *
+     * @param strategyId 策略唯一标识
+     * @param awardId    发生变更的奖品ID
+     * @return true: 装配成功；false: 策略无奖品配置
+     */
+    boolean assembleLotteryStrategyByAwardId(Long strategyId, Integer awardId);
+
     /**
      * 关联装配：基于活动 ID 触发关联策略的装配
      * * 常用于活动发布或审核通过后的自动化预热场景。
@@ -34,4 +47,21 @@ public interface IStrategyArmory {
      * @return 整体装配链路是否成功执行
      */
     boolean assembleLotteryStrategyByActivityId(Long activityId);
+
+    /**
+     * 快照恢复：启动时从本地内存映射快照恢复概率表副本
+     * 仅恢复与 Redis 当前生效版本一致的快照，恢复后无需读取 Redis 即可直接抽奖。
+     *
+     * @return 成功恢复的装配Key数量
+     */
+    int restoreRateTableSnapshot();
+
+    /**
+     * 加载活动关联策略的全部抽奖池（默认池 + 各权重池）：本地副本未命中时按 Redis 当前生效版本指针加载，用于启动预热跳过重复装配
+     * 任一抽奖池在 Redis 中无生效版本时返回 false，由调用方执行装配。
+     *
+     * @param activityId 活动配置 ID
+     * @return true: 已就绪
+     */
+    boolean loadAssembledByActivityId(Long activityId);
 }
\ No newline at end of file
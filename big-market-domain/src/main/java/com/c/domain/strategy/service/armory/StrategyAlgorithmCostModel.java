@@ -0,0 +1,138 @@
+package com.c.domain.strategy.service.armory;
+
+import com.c.domain.strategy.model.vo.StrategyAlgorithmCostVO;
+import com.c.domain.strategy.service.armory.algorithm.AbstractAlgorithm;
+import com.c.domain.strategy.service.armory.algorithm.IAlgorithm;
+import com.c.types.common.Constants;
+import com.c.types.enums.ResponseCode;
+import com.c.types.exception.AppException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 装配算法代价模型
+ * 1. 内存维度：由各算法按奖品数量与量程估算概率表字节数，超出单策略内存预算的算法不参与选型。
+ * 2. 延迟维度：预估查找延迟 = 查找步数 × 实测单步耗时；单步耗时由调度阶段抽样计时累计，未采样前使用默认值。
+ * 3. 选型规则：预算内取预估延迟最低者，延迟相同取占用更小者；全部超预算时退化为占用最小的算法。
+ * 4. 牌堆算法改变抽样语义（精确出奖数），不参与代价选型，仅对配置的策略显式启用。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Slf4j
+@Component
+public class StrategyAlgorithmCostModel {
+
+    /** 调度耗时抽样掩码：约每 1024 次调度计时 1 次 */
+    private static final int LATENCY_SAMPLE_MASK = 1023;
+
+    /** 未采样时的默认单步耗时（纳秒） */
+    private static final double DEFAULT_NANOS_PER_STEP = 20D;
+
+    /** 注入所有IAlgorithm实现类（O1/OLogN/Alias算法） */
+    private final Map<String, IAlgorithm> algorithmMap;
+
+    /** 算法Bean名称 -> [累计耗时纳秒, 累计查找步数] */
+    private final Map<String, LongAdder[]> latencyStatMap = new ConcurrentHashMap<>();
+
+    /** 单策略装配Key的概率表内存预算（字节） */
+    @Value("${strategy.armory.memory-budget-bytes:262144}")
+    private long memoryBudgetBytes;
+
+    /** 启用牌堆算法的策略ID集合 */
+    @Value("#{'${strategy.armory.deck-strategy-ids:}'.split(',')}")
+    private Set<String> deckStrategyIds;
+
+    public StrategyAlgorithmCostModel(Map<String, IAlgorithm> algorithmMap) {
+        this.algorithmMap = algorithmMap;
+    }
+
+    /**
+     * 按代价模型选择装配算法
+     *
+     * @param key        策略装配唯一标识
+     * @param awardCount 奖品数量
+     * @param rateRange  概率量程
+     * @return 选型结论
+     */
+    public StrategyAlgorithmCostVO select(String key, int awardCount, int rateRange) {
+        // 1. 牌堆策略：默认池与权重池（Key = 策略ID[_权重值]）统一使用牌堆算法
+        String deckKey = AbstractAlgorithm.Algorithm.Deck.getKey();
+        if (deckStrategyIds.contains(key.split(Constants.UNDERLINE)[0])) {
+            return evaluate(deckKey, algorithmMap.get(deckKey), awardCount, rateRange);
+        }
+
+        // 2. 逐个算法评估内存占用与查找延迟
+        StrategyAlgorithmCostVO best = algorithmMap
+                .entrySet()
+                .stream()
+                .filter(entry -> !deckKey.equals(entry.getKey()))
+                .map(entry -> evaluate(entry.getKey(), entry.getValue(), awardCount, rateRange))
+                // 3. 预算内优先，其次预估延迟，最后内存占用
+                .min(Comparator
+                        .comparing((StrategyAlgorithmCostVO cost) -> !cost.getWithinBudget())
+                        .thenComparing(cost -> cost.getWithinBudget() ? cost.getEstimatedLatencyNanos() : 0D)
+                        .thenComparing(StrategyAlgorithmCostVO::getEstimatedBytes))
+                .orElseThrow(() -> new AppException(ResponseCode.UN_ERROR));
+
+        if (!best.getWithinBudget()) {
+            log.warn("策略装配 Key:{} 所有算法均超出内存预算 {}B，退化为占用最小的算法:{} 预估:{}B", key, memoryBudgetBytes,
+                    best.getAlgorithm(), best.getEstimatedBytes());
+        }
+        return best;
+    }
+
+    /**
+     * 调度耗时抽样判定（无锁，开销远低于一次计时）
+     *
+     * @return true-本次调度需计时
+     */
+    public boolean sampleLatency() {
+        return (ThreadLocalRandom
+                .current()
+                .nextInt() & LATENCY_SAMPLE_MASK) == 0;
+    }
+
+    /**
+     * 记录一次调度实测耗时，折算为单步耗时参与后续选型
+     *
+     * @param algorithm  算法Bean名称
+     * @param awardCount 奖品数量
+     * @param nanos      实测耗时（纳秒）
+     */
+    public void recordLatency(String algorithm, int awardCount, long nanos) {
+        IAlgorithm impl = algorithmMap.get(algorithm);
+        if (null == impl) return;
+        LongAdder[] stat = latencyStatMap.computeIfAbsent(algorithm, k -> new LongAdder[]{new LongAdder(),
+                new LongAdder()});
+        stat[0].add(nanos);
+        stat[1].add(impl.estimateLookupSteps(awardCount));
+    }
+
+    private StrategyAlgorithmCostVO evaluate(String beanName, IAlgorithm algorithm, int awardCount, int rateRange) {
+        long estimatedBytes = algorithm.estimateTableBytes(awardCount, rateRange);
+        return StrategyAlgorithmCostVO
+                .builder()
+                .algorithm(beanName)
+                .estimatedBytes(estimatedBytes)
+                .estimatedLatencyNanos(algorithm.estimateLookupSteps(awardCount) * nanosPerStep(beanName))
+                .withinBudget(estimatedBytes <= memoryBudgetBytes)
+                .build();
+    }
+
+    private double nanosPerStep(String algorithm) {
+        LongAdder[] stat = latencyStatMap.get(algorithm);
+        if (null == stat) return DEFAULT_NANOS_PER_STEP;
+        long steps = stat[1].sum();
+        return steps == 0 ? DEFAULT_NANOS_PER_STEP : (double) stat[0].sum() / steps;
+    }
+
+}
@@ -1,20 +1,21 @@
 package com.c.domain.strategy.service.armory;
 
 import com.c.domain.strategy.model.entity.StrategyAwardEntity;
-import com.c.domain.strategy.service.armory.algorithm.AbstractAlgorithm;
+import com.c.domain.strategy.model.vo.StrategyAlgorithmCostVO;
+import com.c.domain.strategy.model.vo.StrategyRateTablePointerVO;
+import com.c.domain.strategy.model.vo.StrategyRateTableVO;
 import com.c.domain.strategy.service.armory.algorithm.IAlgorithm;
 import com.c.types.enums.ResponseCode;
 import com.c.types.exception.AppException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
 /**
  * 策略装配与调度服务
- * 核心能力：根据量程阈值自动分发至O(1)或O(LogN)算法执行装配/抽奖
+ * 核心能力：由代价模型（内存预算 + 查找延迟）为每个装配Key选择O(1)/Alias/O(LogN)算法执行装配/抽奖
  *
  * @author cyh
  * @date 2026/03/11
@@ -23,44 +24,118 @@ import java.util.Map;
 @Service
 public class StrategyArmoryDispatch extends AbstractStrategyAlgorithm {
 
-    // 注入所有IAlgorithm实现类（O1/OLogN算法）
+    // 注入所有IAlgorithm实现类（O1/OLogN/Alias算法）
     private final Map<String, IAlgorithm> algorithmMap;
 
-    // 算法切换阈值：量程超100万自动使用O(LogN)算法
-    private static final BigDecimal ALGORITHM_THRESHOLD_VALUE = new BigDecimal(1_000);
+    // 概率表 JVM 本地副本
+    private final StrategyRateTableLocalCache rateTableLocalCache;
 
-    public StrategyArmoryDispatch(Map<String, IAlgorithm> algorithmMap) {
+    // 装配算法代价模型
+    private final StrategyAlgorithmCostModel algorithmCostModel;
+
+    public StrategyArmoryDispatch(Map<String, IAlgorithm> algorithmMap,
+                                  StrategyRateTableLocalCache rateTableLocalCache,
+                                  StrategyAlgorithmCostModel algorithmCostModel) {
         this.algorithmMap = algorithmMap;
+        this.rateTableLocalCache = rateTableLocalCache;
+        this.algorithmCostModel = algorithmCostModel;
     }
 
     @Override
-    protected void armoryAlgorithm(String key, List<StrategyAwardEntity> strategyAwardEntities, BigDecimal rateRange,
-                                   BigDecimal totalAwardRate) {
-
-        // 算法决策：根据量程选择O1/OLogN算法
-        String beanName = rateRange.compareTo(ALGORITHM_THRESHOLD_VALUE) > 0 ?
-                AbstractAlgorithm.Algorithm.OLogN.getKey() : AbstractAlgorithm.Algorithm.O1.getKey();
+    protected void armoryAlgorithm(String key, List<StrategyAwardEntity> strategyAwardEntities, int[] awardCounts,
+                                   int rateRange) {
 
-        // 获取算法实例并执行装配
+        // 算法决策：代价模型按内存预算与预估查找延迟选型
+        StrategyAlgorithmCostVO cost = algorithmCostModel.select(key, strategyAwardEntities.size(), rateRange);
+        String beanName = cost.getAlgorithm();
         IAlgorithm algorithm = algorithmMap.get(beanName);
-        if (null == algorithm) throw new AppException(ResponseCode.UN_ERROR);
-        algorithm.armoryAlgorithm(key, strategyAwardEntities, rateRange, totalAwardRate);
 
-        // 记录算法路由信息至Redis，供抽奖调度使用
-        repository.cacheStrategyArmoryAlgorithm(key, beanName);
+        // 蓝绿装配：新版本数据写入独立 Key，不影响正在读取旧版本的抽奖请求
+        StrategyRateTablePointerVO pointer = StrategyRateTablePointerVO
+                .builder()
+                .version(repository.nextStrategyRateTableVersion(key))
+                .algorithm(beanName)
+                .estimatedBytes(cost.getEstimatedBytes())
+                .awardIds(strategyAwardEntities
+                        .stream()
+                        .mapToInt(StrategyAwardEntity::getAwardId)
+                        .sorted()
+                        .toArray())
+                .build();
+        String tableKey = pointer.tableKey(key);
+        algorithm.armoryAlgorithm(tableKey, strategyAwardEntities, awardCounts, rateRange);
+        StrategyRateTableVO rateTable = algorithm.loadRateTable(tableKey, pointer.getVersion());
+
+        // 原子切换版本指针（量程 + 概率表 + 算法 + 预估占用同时生效），旧版本延迟清理并广播失效
+        repository.switchStrategyRateTable(key, pointer);
+        rateTableLocalCache.put(key, rateTable);
+        repository.storeStrategyRateTableSnapshot(key, rateTable);
+
+        log.info("策略装配完成 Key:{} 选用算法:{} 量程:{} 预估占用:{}B 预估延迟:{}ns 版本:{}", key, beanName, rateRange,
+                cost.getEstimatedBytes(), String.format("%.1f", cost.getEstimatedLatencyNanos()), pointer.getVersion());
+    }
+
+    @Override
+    public int restoreRateTableSnapshot() {
+        Map<String, StrategyRateTableVO> snapshots = repository.queryStrategyRateTableSnapshot();
+        int restoreCount = 0;
+        for (Map.Entry<String, StrategyRateTableVO> entry : snapshots.entrySet()) {
+            String key = entry.getKey();
+            StrategyRateTableVO rateTable = entry.getValue();
+
+            // 仅恢复与 Redis 当前生效版本、算法一致的快照；版本落后或 Redis 已清空时丢弃，由装配/懒加载兜底
+            StrategyRateTablePointerVO pointer = repository.queryStrategyRateTablePointer(key);
+            if (null == pointer || pointer.getVersion() != rateTable.getVersion() ||
+                    !rateTable.getAlgorithm().equals(pointer.getAlgorithm()) ||
+                    !algorithmMap.containsKey(rateTable.getAlgorithm())) {
+                log.info("概率表快照已过期，跳过恢复 Key:{} 快照版本:{} 生效版本:{}", key, rateTable.getVersion(),
+                        null == pointer ? null : pointer.getVersion());
+                continue;
+            }
 
-        log.info("策略装配完成 Key:{} 选用算法:{} 量程:{}", key, beanName, rateRange);
+            rateTableLocalCache.put(key, rateTable);
+            restoreCount++;
+        }
+        log.info("概率表快照恢复完成 快照数:{} 恢复数:{}", snapshots.size(), restoreCount);
+        return restoreCount;
+    }
+
+    @Override
+    protected boolean loadAssembled(String key) {
+        if (null != rateTableLocalCache.get(key)) return true;
+        // Redis 已有生效版本时直接加载，不重新装配，避免版本自增与全集群副本失效广播
+        if (null == repository.queryStrategyRateTablePointer(key)) return false;
+        rateTableLocalCache.get(key, this::loadRateTable);
+        return true;
     }
 
     @Override
     protected Integer dispatchAlgorithm(String key) {
-        // 获取装配时记录的算法标识，实现精准路由
-        String beanName = repository.queryStrategyArmoryAlgorithmFromCache(key);
-        if (null == beanName) throw new AppException(ResponseCode.UN_ASSEMBLED_STRATEGY_ARMORY);
-
-        // 调度对应算法执行抽奖
-        return algorithmMap
-                .get(beanName)
-                .dispatchAlgorithm(key);
+        // 1. 优先使用 JVM 本地副本，命中时全程不访问 Redis
+        // 2. 未命中：单飞按版本指针加载当前生效版本并回填本地副本，快照仅由加载线程提交一次
+        StrategyRateTableVO rateTable = rateTableLocalCache.get(key, this::loadRateTable);
+
+        // 3. 调度对应算法执行抽奖（抽样计时，反馈代价模型的单步耗时）
+        IAlgorithm algorithm = algorithmMap.get(rateTable.getAlgorithm());
+        if (!algorithmCostModel.sampleLatency()) return algorithm.dispatchAlgorithm(rateTable);
+
+        long start = System.nanoTime();
+        Integer awardId = algorithm.dispatchAlgorithm(rateTable);
+        int awardCount = null == rateTable.getAwardIds() ? 0 : rateTable.getAwardIds().length;
+        algorithmCostModel.recordLatency(rateTable.getAlgorithm(), awardCount, System.nanoTime() - start);
+        return awardId;
+    }
+
+    /**
+     * 按版本指针从 Redis 加载当前生效版本的概率表，并提交本地快照
+     */
+    private StrategyRateTableVO loadRateTable(String key) {
+        StrategyRateTablePointerVO pointer = repository.queryStrategyRateTablePointer(key);
+        if (null == pointer) throw new AppException(ResponseCode.UN_ASSEMBLED_STRATEGY_ARMORY);
+        StrategyRateTableVO rateTable = algorithmMap
+                .get(pointer.getAlgorithm())
+                .loadRateTable(pointer.tableKey(key), pointer.getVersion());
+        repository.storeStrategyRateTableSnapshot(key, rateTable);
+        return rateTable;
     }
-}
\ No newline at end of file
+}
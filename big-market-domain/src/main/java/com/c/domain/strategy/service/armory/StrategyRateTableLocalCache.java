@@ -0,0 +1,123 @@
+package com.c.domain.strategy.service.armory;
+
+import com.c.domain.strategy.model.vo.StrategyRateTableVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 策略概率表 JVM 本地副本
+ * 1. 零 Redis 抽奖：装配/首次调度时将概率表加载为不可变数组，后续抽奖全部在内存中完成。
+ * 2. 版本失效：Redis 中每次装配自增版本号并广播，本地副本版本落后时立即剔除，下次调度重新加载。
+ * 3. 防回写脏数据：记录已知最新版本，加载结果版本落后时不入缓存，避免覆盖较新的副本。
+ * 4. 单飞加载：同一装配Key的并发未命中只有一个线程执行加载，其余线程等待并复用其结果。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Slf4j
+@Component
+public class StrategyRateTableLocalCache {
+
+    /** 装配Key -> 概率表副本 */
+    private final Map<String, StrategyRateTableVO> rateTableMap = new ConcurrentHashMap<>();
+
+    /** 装配Key -> 已感知的最新版本号 */
+    private final Map<String, Long> latestVersionMap = new ConcurrentHashMap<>();
+
+    /** 装配Key -> 进行中的加载任务（单飞） */
+    private final Map<String, CompletableFuture<StrategyRateTableVO>> loadingMap = new ConcurrentHashMap<>();
+
+    /**
+     * 获取本地概率表副本
+     *
+     * @param key 策略装配唯一标识
+     * @return 概率表副本，未加载返回null
+     */
+    public StrategyRateTableVO get(String key) {
+        return rateTableMap.get(key);
+    }
+
+    /**
+     * 获取本地概率表副本，未命中时单飞加载
+     * 1. 命中直接返回，不进入单飞路径。
+     * 2. 未命中时经 putIfAbsent 抢占该Key的加载任务，抢到的线程在任何锁之外执行加载函数，其余线程等待并复用结果；
+     * Redis 读取缓慢或失败不会阻塞其他Key与版本失效广播。
+     * 3. 加载失败时任务以异常完成并立即移除，等待线程收到同一异常，下一次未命中重新加载。
+     * 4. 加载结果版本落后于已感知的最新版本时仍返回给本次调用，但不入缓存，下次调度按新版本重新加载。
+     *
+     * @param key    策略装配唯一标识
+     * @param loader 加载函数
+     * @return 概率表副本
+     */
+    public StrategyRateTableVO get(String key, Function<String, StrategyRateTableVO> loader) {
+        StrategyRateTableVO rateTable = rateTableMap.get(key);
+        if (null != rateTable) return rateTable;
+
+        CompletableFuture<StrategyRateTableVO> future = new CompletableFuture<>();
+        CompletableFuture<StrategyRateTableVO> loading = loadingMap.putIfAbsent(key, future);
+        if (null != loading) return join(loading);
+
+        try {
+            // 抢到加载权后复查：前一个加载任务可能刚完成回填
+            rateTable = rateTableMap.get(key);
+            if (null == rateTable) {
+                rateTable = loader.apply(key);
+                put(key, rateTable);
+            }
+            future.complete(rateTable);
+            return rateTable;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadingMap.remove(key, future);
+        }
+    }
+
+    /**
+     * 写入本地概率表副本（仅保留版本较新者）
+     *
+     * @param key       策略装配唯一标识
+     * @param rateTable 概率表副本
+     */
+    public void put(String key, StrategyRateTableVO rateTable) {
+        Long latestVersion = latestVersionMap.get(key);
+        if (null != latestVersion && rateTable.getVersion() < latestVersion) {
+            log.info("概率表副本版本落后，跳过本地缓存 Key:{} 版本:{} 最新版本:{}", key, rateTable.getVersion(), latestVersion);
+            return;
+        }
+        rateTableMap.merge(key, rateTable, (oldValue, newValue) -> newValue.getVersion() >= oldValue.getVersion() ? newValue : oldValue);
+    }
+
+    /**
+     * 版本失效：本地副本版本落后于广播版本时剔除
+     *
+     * @param key     策略装配唯一标识
+     * @param version 最新版本号
+     */
+    public void invalidate(String key, long version) {
+        latestVersionMap.merge(key, version, Math::max);
+        rateTableMap.computeIfPresent(key, (k, rateTable) -> rateTable.getVersion() < version ? null : rateTable);
+        log.info("概率表本地副本版本变更 Key:{} 版本:{}", key, version);
+    }
+
+    /**
+     * 等待进行中的加载任务，加载异常原样抛出
+     */
+    private static StrategyRateTableVO join(CompletableFuture<StrategyRateTableVO> loading) {
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+}
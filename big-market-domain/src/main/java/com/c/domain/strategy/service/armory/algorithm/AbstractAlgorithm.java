@@ -1,12 +1,18 @@
 package com.c.domain.strategy.service.armory.algorithm;
 
 import com.c.domain.strategy.repository.IStrategyRepository;
+import com.c.domain.strategy.service.armory.random.IRandomSource;
+import com.c.types.enums.ResponseCode;
+import com.c.types.exception.AppException;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
-import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 抽奖算法抽象基类
@@ -26,15 +32,54 @@ public abstract class AbstractAlgorithm implements IAlgorithm {
     protected IStrategyRepository repository;
 
     /**
-     * 高安全级别的随机数生成器
-     * 相比 Random，SecureRandom 具有更强的不可预测性，适合金融/抽奖等对安全性敏感的场景
+     * 随机源实现集合（Bean名称 -> 实现）
      */
-    protected final SecureRandom secureRandom = new SecureRandom();
+    @Resource
+    private Map<String, IRandomSource> randomSourceMap;
+
+    /**
+     * 生效的随机源Bean名称，默认分段 SecureRandom 池（保留不可预测性）
+     */
+    @Value("${strategy.armory.random-source:secureRandomSource}")
+    private String randomSourceName;
+
+    /**
+     * 抽样随机源，由配置项选择具体实现，取代全局共享的单个 SecureRandom（内部同步，高并发下成为竞争热点）
+     */
+    protected IRandomSource randomSource;
+
+    /**
+     * 按配置解析随机源，配置错误时启动失败，避免静默回退
+     */
+    @PostConstruct
+    public void initRandomSource() {
+        randomSource = randomSourceMap.get(randomSourceName);
+        if (null == randomSource) {
+            throw new AppException(ResponseCode.UN_ERROR, "未知的抽奖随机源配置: " + randomSourceName);
+        }
+    }
+
+    /**
+     * Fisher–Yates 原地洗牌，无装箱与额外拷贝（装配阶段使用，无需密码学随机源）
+     *
+     * @param table 待洗牌数组
+     */
+    protected static void shuffle(int[] table) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = table.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = table[i];
+            table[i] = table[j];
+            table[j] = temp;
+        }
+    }
 
     /**
      * 抽奖算法类型枚举
      * - O1: 空间换时间算法。通过预热完整的概率分布查找表，实现 O(1) 时间复杂度的快速定位。
      * - OLogN: 节省空间的算法。通过二分查找处理非预热或大跨度概率区间，时间复杂度为 O(logN)。
+     * - Alias: 别名表算法。空间仅与奖品数量相关，抽样时间复杂度为 O(1)，适合高精度概率配置。
+     * - Deck: 牌堆算法。预洗牌有限牌堆 + 原子游标顺序发牌，每轮牌堆的出奖数量严格等于配置值。
      */
     @Getter
     @AllArgsConstructor
@@ -44,7 +89,13 @@ public abstract class AbstractAlgorithm implements IAlgorithm {
         O1("o1Algorithm"),
 
         /** O(logN) 二分搜索算法 */
-        OLogN("oLogNAlgorithm");
+        OLogN("oLogNAlgorithm"),
+
+        /** O(1) 别名表算法 */
+        Alias("aliasAlgorithm"),
+
+        /** 牌堆算法（精确出奖数，仅按配置显式启用） */
+        Deck("deckAlgorithm");
 
         private String key;
     }
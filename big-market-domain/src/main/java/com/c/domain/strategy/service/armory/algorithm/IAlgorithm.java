@@ -1,8 +1,8 @@
 package com.c.domain.strategy.service.armory.algorithm;
 
 import com.c.domain.strategy.model.entity.StrategyAwardEntity;
+import com.c.domain.strategy.model.vo.StrategyRateTableVO;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -18,26 +18,54 @@ public interface IAlgorithm {
 
     /**
      * 算法装配与预热
-     * 1. 空间映射：根据奖品概率和总概率范围（rateRange），计算各奖品在查找表中的占位。
+     * 1. 空间映射：根据各奖品占用格子数（awardCounts）与量程（rateRange），计算各奖品在查找表中的占位。
      * 2. 查找表构建：生成基于 Redis 或内存的概率索引表，将概率计算转化为索引查找。
      * 3. 数据打散：对索引表进行 Shuffle 处理，确保随机分布的均匀性。
      *
      * @param key                   缓存及检索的唯一标识（通常包含策略ID与权重标识）
      * @param strategyAwardEntities 策略关联的奖品实体列表（包含奖品ID与对应概率）
+     * @param awardCounts           各奖品占用格子数，与奖品列表下标一一对应（已按定点权重折算）
      * @param rateRange             概率范围（如 0.0001 对应 10000 范围的分母）
      */
-    void armoryAlgorithm(String key, List<StrategyAwardEntity> strategyAwardEntities,
-                         BigDecimal rateRange, BigDecimal totalAwardRate);
+    void armoryAlgorithm(String key, List<StrategyAwardEntity> strategyAwardEntities, int[] awardCounts,
+                         int rateRange);
 
     /**
      * 算法调度执行
      * 1. 随机碰撞：生成 0 至 rateRange 之间的随机整数。
-     * 2. 快速索引：直接从预热好的查找表中通过随机数定位奖品 ID。
-     * 3. 性能保障：保证在 O(1) 的时间复杂度内完成中奖结果的定位。
+     * 2. 快速索引：直接从 JVM 本地概率表副本中通过随机数定位奖品 ID。
+     * 3. 性能保障：纯内存计算，不访问 Redis。
      *
-     * @param key 算法对应的唯一标识
-     * @return 最终中奖的奖品 ID（若未配置或异常则返回 null/默认值）
+     * @param rateTable 当前生效版本的概率表副本
+     * @return 最终中奖的奖品 ID
      */
-    Integer dispatchAlgorithm(String key);
+    Integer dispatchAlgorithm(StrategyRateTableVO rateTable);
 
-}
\ No newline at end of file
+    /**
+     * 加载概率表为 JVM 本地只读副本
+     * 从 Redis 读取装配结果并编译为原始数组结构，供调度阶段零网络寻址。
+     *
+     * @param key     版本化存储 Key（策略装配Key_v版本号）
+     * @param version 概率表版本号
+     * @return 不可变概率表副本
+     */
+    StrategyRateTableVO loadRateTable(String key, long version);
+
+    /**
+     * 估算概率表 JVM 本地副本的常驻字节数（仅计原始数组负载，用于装配选型的内存预算校验）
+     *
+     * @param awardCount 奖品数量
+     * @param rateRange  概率量程
+     * @return 预估字节数
+     */
+    long estimateTableBytes(int awardCount, int rateRange);
+
+    /**
+     * 估算单次抽样的查找步数（随机数生成与数组访问次数），与实测单步耗时相乘得到预估查找延迟
+     *
+     * @param awardCount 奖品数量
+     * @return 预估查找步数
+     */
+    int estimateLookupSteps(int awardCount);
+
+}
@@ -0,0 +1,147 @@
+package com.c.domain.strategy.service.armory.algorithm.impl;
+
+import com.c.domain.strategy.model.entity.StrategyAwardEntity;
+import com.c.domain.strategy.model.vo.StrategyAwardAliasTableVO;
+import com.c.domain.strategy.model.vo.StrategyRateTableVO;
+import com.c.domain.strategy.service.armory.algorithm.AbstractAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 抽奖算法 - Walker/Vose 别名表实现
+ * 适用场景：概率精度极高（如 0.0001），既要避免 O(1) 映射表的空间膨胀，又要保持 O(1) 抽样
+ * 空间复杂度 O(n)（n 为奖品数量），抽样仅需两次随机数与一次比较
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Slf4j
+@Component("aliasAlgorithm")
+public class AliasAlgorithm extends AbstractAlgorithm {
+
+    /**
+     * 装配别名表：Vose 算法将 n 个奖品的权重均摊至 n 列，每列至多包含两个奖品
+     *
+     * @param key                   策略装配唯一标识
+     * @param strategyAwardEntities 奖品配置列表
+     * @param awardCounts           各奖品离散化权重
+     * @param rateRange             概率量程
+     */
+    @Override
+    public void armoryAlgorithm(String key, List<StrategyAwardEntity> strategyAwardEntities, int[] awardCounts,
+                                int rateRange) {
+        int n = strategyAwardEntities.size();
+        int[] awardIds = new int[n];
+        long[] scaled = new long[n];
+        long total = 0;
+
+        // 1. 按离散化权重放大 n 倍，使平均列权重恰为 total
+        for (int i = 0; i < n; i++) {
+            awardIds[i] = strategyAwardEntities
+                    .get(i)
+                    .getAwardId();
+            scaled[i] = (long) awardCounts[i] * n;
+            total += awardCounts[i];
+        }
+
+        // 2. 按平均权重（total）划分欠额列与超额列
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallSize = 0, largeSize = 0;
+        for (int i = 0; i < n; i++) {
+            if (scaled[i] < total) small[smallSize++] = i;
+            else large[largeSize++] = i;
+        }
+
+        // 3. 超额列向欠额列补齐：欠额列记录接受阈值与别名
+        int[] probabilities = new int[n];
+        int[] aliases = new int[n];
+        while (smallSize > 0 && largeSize > 0) {
+            int s = small[--smallSize];
+            int l = large[--largeSize];
+            probabilities[s] = (int) scaled[s];
+            aliases[s] = l;
+            scaled[l] = scaled[l] + scaled[s] - total;
+            if (scaled[l] < total) small[smallSize++] = l;
+            else large[largeSize++] = l;
+        }
+
+        // 4. 剩余列必然满额（含整数舍入残留），接受阈值置为满量程
+        while (largeSize > 0) {
+            int l = large[--largeSize];
+            probabilities[l] = (int) total;
+            aliases[l] = l;
+        }
+        while (smallSize > 0) {
+            int s = small[--smallSize];
+            probabilities[s] = (int) total;
+            aliases[s] = s;
+        }
+
+        // 5. 持久化别名表，抽样时在 [0, total) 内取随机数与列阈值比较
+        repository.storeStrategyAwardAliasTable(key, (int) total, StrategyAwardAliasTableVO
+                .builder()
+                .awardIds(awardIds)
+                .probabilities(probabilities)
+                .aliases(aliases)
+                .build());
+    }
+
+    /**
+     * 执行别名表抽样：随机选列，再按列阈值决定命中本列奖品或别名奖品
+     *
+     * @param rateTable 概率表副本
+     * @return 命中的奖品ID
+     */
+    @Override
+    public Integer dispatchAlgorithm(StrategyRateTableVO rateTable) {
+        int[] awardIds = rateTable.getAwardIds();
+
+        int column = randomSource.nextInt(awardIds.length);
+        int random = randomSource.nextInt(rateTable.getRateRange());
+        return random < rateTable.getTable()[column] ? awardIds[column] :
+                awardIds[rateTable.getAliases()[column]];
+    }
+
+    /**
+     * 估算别名表字节数：奖品ID、接受阈值、别名三个等长数组
+     */
+    @Override
+    public long estimateTableBytes(int awardCount, int rateRange) {
+        return 3L * Integer.BYTES * awardCount;
+    }
+
+    /**
+     * 两次随机（选列 + 阈值比较）
+     */
+    @Override
+    public int estimateLookupSteps(int awardCount) {
+        return 2;
+    }
+
+    /**
+     * 加载别名表副本
+     *
+     * @param key     版本化存储 Key
+     * @param version 概率表版本号
+     * @return 不可变概率表副本
+     */
+    @Override
+    public StrategyRateTableVO loadRateTable(String key, long version) {
+        int rateRange = repository.getRateRange(key);
+        StrategyAwardAliasTableVO aliasTable = repository.getStrategyAwardAliasTable(key);
+
+        return StrategyRateTableVO
+                .builder()
+                .key(key)
+                .version(version)
+                .algorithm(Algorithm.Alias.getKey())
+                .rateRange(rateRange)
+                .table(aliasTable.getProbabilities())
+                .awardIds(aliasTable.getAwardIds())
+                .aliases(aliasTable.getAliases())
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+package com.c.domain.strategy.service.armory.algorithm.impl;
+
+import com.c.domain.strategy.model.entity.StrategyAwardEntity;
+import com.c.domain.strategy.model.vo.StrategyRateTableVO;
+import com.c.domain.strategy.service.armory.algorithm.AbstractAlgorithm;
+import com.c.types.enums.ResponseCode;
+import com.c.types.exception.AppException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 抽奖算法 - 牌堆（Deck）实现
+ * 适用场景：财务要求精确出奖数量而非期望值的活动。
+ * 1. 装配：按各奖品格子数生成有限牌堆（不做缝隙填充），洗牌后整体存储，并为该版本生成随机置换种子。
+ * 2. 调度：单次 Redis INCR 推进全局发牌游标，游标 / 张数 为轮次、游标 % 张数 为轮内位置；
+ * 轮内位置经 (种子, 轮次) 决定的置换映射到牌堆下标，每轮发牌顺序各不相同，但每轮恰好发完整副牌堆，各奖品出奖数严格等于格子数。
+ * 3. 防预测：观察到某一轮的出奖序列无法推知下一轮哪些游标位置出大奖。
+ * 4. 审计：游标即全局已发牌数，结合牌堆与种子可完整复现每一次出奖。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Slf4j
+@Component("deckAlgorithm")
+public class DeckAlgorithm extends AbstractAlgorithm {
+
+    /** Feistel 轮数 */
+    private static final int FEISTEL_ROUNDS = 4;
+
+    /** 黄金分割常数（64 位），用于分散轮次与轮序号 */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** 置换种子随机源（仅装配时使用） */
+    private static final SecureRandom SEED_RANDOM = new SecureRandom();
+
+    /**
+     * 装配牌堆：按格子数填充奖品ID并原地洗牌
+     *
+     * @param key                   策略装配唯一标识
+     * @param strategyAwardEntities 奖品配置列表
+     * @param awardCounts           各奖品占用格子数（即每轮牌堆中的张数）
+     * @param rateRange             概率量程
+     */
+    @Override
+    public void armoryAlgorithm(String key, List<StrategyAwardEntity> strategyAwardEntities, int[] awardCounts,
+                                int rateRange) {
+        // 1. 牌堆张数严格等于格子数之和，不补缝隙，保证出奖比例精确
+        int size = 0;
+        for (int awardCount : awardCounts) {
+            size += awardCount;
+        }
+        if (size <= 0) throw new AppException(ResponseCode.STRATEGY_CONFIG_ERROR);
+
+        // 2. 按格子数顺序填充奖品ID
+        int[] deck = new int[size];
+        int cursor = 0;
+        for (int i = 0; i < awardCounts.length; i++) {
+            Arrays.fill(deck, cursor, cursor + awardCounts[i], strategyAwardEntities
+                    .get(i)
+                    .getAwardId());
+            cursor += awardCounts[i];
+        }
+
+        // 3. 洗牌后连同本版本的置换种子一并持久化
+        shuffle(deck);
+        repository.storeStrategyAwardDeckTable(key, deck, SEED_RANDOM.nextLong());
+    }
+
+    /**
+     * 执行发牌：单次原子 INCR 推进游标，轮内位置经本轮置换映射到牌堆下标后取牌
+     *
+     * @param rateTable 概率表副本
+     * @return 命中的奖品ID
+     */
+    @Override
+    public Integer dispatchAlgorithm(StrategyRateTableVO rateTable) {
+        long drawIndex = repository.nextStrategyAwardDeckCursor(rateTable.getKey()) - 1;
+        int[] deck = rateTable.getTable();
+        long round = drawIndex / deck.length;
+        int position = (int) (drawIndex % deck.length);
+        return deck[permute(position, deck.length, mix(rateTable.getSeed() + round * GOLDEN_GAMMA))];
+    }
+
+    /**
+     * 轮内置换：以轮密钥驱动的平衡 Feistel 网络在 [0, 2^bits) 上构成双射，
+     * 超出 [0, size) 的结果继续迭代（循环游走）直至落入区间，从而在 [0, size) 上同样构成双射；
+     * 2^bits 不超过 4 * size，期望迭代次数不超过 4。
+     *
+     * @param position 轮内位置
+     * @param size     牌堆张数
+     * @param roundKey 轮密钥
+     * @return 牌堆下标
+     */
+    private static int permute(int position, int size, long roundKey) {
+        int bits = 64 - Long.numberOfLeadingZeros(Math.max(size - 1, 1));
+        int halfBits = (bits + 1) / 2;
+        long halfMask = (1L << halfBits) - 1;
+
+        long index = position;
+        do {
+            long left = index >>> halfBits;
+            long right = index & halfMask;
+            for (int i = 0; i < FEISTEL_ROUNDS; i++) {
+                long next = left ^ (mix((roundKey + (i + 1) * GOLDEN_GAMMA) ^ right) & halfMask);
+                left = right;
+                right = next;
+            }
+            index = left << halfBits | right;
+        } while (index >= size);
+        return (int) index;
+    }
+
+    /**
+     * SplitMix64 终结混合函数
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 估算牌堆字节数：张数为量程（保底格子最多使每个奖品多占 1 张）
+     */
+    @Override
+    public long estimateTableBytes(int awardCount, int rateRange) {
+        return (long) Integer.BYTES * ((long) rateRange + awardCount);
+    }
+
+    /**
+     * 单次原子 INCR + 单次数组访问
+     */
+    @Override
+    public int estimateLookupSteps(int awardCount) {
+        return 1;
+    }
+
+    /**
+     * 加载牌堆副本
+     *
+     * @param key     版本化存储 Key
+     * @param version 概率表版本号
+     * @return 不可变概率表副本
+     */
+    @Override
+    public StrategyRateTableVO loadRateTable(String key, long version) {
+        int[] deck = repository.getStrategyAwardDeckTable(key);
+
+        return StrategyRateTableVO
+                .builder()
+                .key(key)
+                .version(version)
+                .algorithm(Algorithm.Deck.getKey())
+                .rateRange(deck.length)
+                .table(deck)
+                .seed(repository.getStrategyAwardDeckSeed(key))
+                .build();
+    }
+
+}
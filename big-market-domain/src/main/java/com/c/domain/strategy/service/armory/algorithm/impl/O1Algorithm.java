@@ -1,13 +1,13 @@
 package com.c.domain.strategy.service.armory.algorithm.impl;
 
 import com.c.domain.strategy.model.entity.StrategyAwardEntity;
+import com.c.domain.strategy.model.vo.StrategyRateTableVO;
 import com.c.domain.strategy.service.armory.algorithm.AbstractAlgorithm;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.*;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * 抽奖算法 - O(1) 索引映射实现
@@ -20,83 +20,99 @@ import java.util.*;
 public class O1Algorithm extends AbstractAlgorithm {
 
     /**
-     * 装配O(1)概率索引表：构建随机索引-奖品ID映射（洗牌后持久化）
+     * 装配O(1)概率索引表：直接填充原始 int 数组并原地洗牌，分片流水线写入缓存
      *
      * @param key                   策略装配唯一标识
      * @param strategyAwardEntities 奖品配置列表
+     * @param awardCounts           各奖品占用格子数
      * @param rateRange             概率量程
-     * @param totalAwardRate        奖品总概率
      */
     @Override
-    public void armoryAlgorithm(String key, List<StrategyAwardEntity> strategyAwardEntities, BigDecimal rateRange,
-                                BigDecimal totalAwardRate) {
-        int range = rateRange.intValue();
-        List<Integer> awardSearchTables = new ArrayList<>(range);
-
-        // 1. 按概率分配索引位置（保底：有概率至少分配1个位置）
-        for (StrategyAwardEntity award : strategyAwardEntities) {
-            // 计算当前奖品应分配的索引数量（向下取整）
-            int count = rateRange
-                    .multiply(award.getAwardRate())
-                    .divide(totalAwardRate, 0, RoundingMode.FLOOR)
-                    .intValue();
+    public void armoryAlgorithm(String key, List<StrategyAwardEntity> strategyAwardEntities, int[] awardCounts,
+                                int rateRange) {
+        // 1. 计算实际表长：保底格子可能使总格数略超量程
+        int filled = 0;
+        int maxRateIndex = 0;
+        for (int i = 0; i < awardCounts.length; i++) {
+            filled += awardCounts[i];
+            if (awardCounts[i] > awardCounts[maxRateIndex]) maxRateIndex = i;
+        }
+        int finalSize = Math.max(filled, rateRange);
 
-            // 保底逻辑：概率>0则至少占1个索引位
-            if (count == 0 && award
-                    .getAwardRate()
-                    .compareTo(BigDecimal.ZERO) > 0) {
-                count = 1;
-            }
+        // 2. 按格子数顺序填充奖品ID
+        int[] awardSearchTable = new int[finalSize];
+        int cursor = 0;
+        for (int i = 0; i < awardCounts.length; i++) {
+            int awardId = strategyAwardEntities
+                    .get(i)
+                    .getAwardId();
+            Arrays.fill(awardSearchTable, cursor, cursor + awardCounts[i], awardId);
+            cursor += awardCounts[i];
+        }
 
-            // 填充当前奖品的索引位置
-            for (int i = 0; i < count; i++) {
-                awardSearchTables.add(award.getAwardId());
-            }
+        // 3. 填充缝隙：补全因舍入产生的索引空缺（用概率最大的奖品填充，通常为“谢谢参与”）
+        if (cursor < finalSize) {
+            Arrays.fill(awardSearchTable, cursor, finalSize, strategyAwardEntities
+                    .get(maxRateIndex)
+                    .getAwardId());
         }
 
-        // 2. 填充缝隙：补全因舍入产生的索引空缺（用概率最大的奖品填充）
-        if (awardSearchTables.size() < range) {
-            int gap = range - awardSearchTables.size();
-            // 获取概率最大的奖品ID（通常为“谢谢参与”）
-            Integer maxRateAwardId = strategyAwardEntities
-                    .stream()
-                    .max(Comparator.comparing(StrategyAwardEntity::getAwardRate))
-                    .map(StrategyAwardEntity::getAwardId)
-                    .get();
+        // 4. Fisher–Yates 原地洗牌，避免连续相同奖品，无装箱与额外拷贝
+        shuffle(awardSearchTable);
 
-            // 填充空缺索引
-            for (int i = 0; i < gap; i++) {
-                awardSearchTables.add(maxRateAwardId);
-            }
-        }
+        // 5. 持久化索引表到缓存（仓储层分片流水线写入）
+        repository.storeStrategyAwardSearchRateTable(key, awardSearchTable);
+    }
 
-        // 3. 洗牌打乱顺序，避免连续相同奖品，提升随机性
-        Collections.shuffle(awardSearchTables);
-        int finalSize = awardSearchTables.size();
+    /**
+     * 执行O(1)抽奖寻址：随机索引直接获取奖品ID（JVM 本地副本，零 Redis 访问）
+     *
+     * @param rateTable 概率表副本
+     * @return 命中的奖品ID
+     */
+    @Override
+    public Integer dispatchAlgorithm(StrategyRateTableVO rateTable) {
+        // 生成随机索引
+        int randomIndex = randomSource.nextInt(rateTable.getRateRange());
 
-        // 构建索引-奖品ID映射（LinkedHashMap保证顺序）
-        Map<Integer, Integer> shuffleMap = new LinkedHashMap<>((int) (finalSize / 0.75f) + 1);
-        for (int i = 0; i < finalSize; i++) {
-            shuffleMap.put(i, awardSearchTables.get(i));
-        }
+        // 直接数组寻址，O(1)时间复杂度
+        return rateTable.getTable()[randomIndex];
+    }
+
+    /**
+     * 估算查找表字节数：表长为量程（保底格子最多使每个奖品多占 1 格）
+     */
+    @Override
+    public long estimateTableBytes(int awardCount, int rateRange) {
+        return (long) Integer.BYTES * ((long) rateRange + awardCount);
+    }
 
-        // 持久化索引表到缓存
-        repository.storeStrategyAwardSearchRateTable(key, finalSize, shuffleMap);
+    /**
+     * 单次随机 + 单次数组访问
+     */
+    @Override
+    public int estimateLookupSteps(int awardCount) {
+        return 1;
     }
 
     /**
-     * 执行O(1)抽奖寻址：随机索引直接获取奖品ID
+     * 加载O(1)概率表副本：单次读取紧凑编码的整表并解码为连续 int 数组
      *
-     * @param key 策略装配唯一标识
-     * @return 命中的奖品ID
+     * @param key     版本化存储 Key
+     * @param version 概率表版本号
+     * @return 不可变概率表副本
      */
     @Override
-    public Integer dispatchAlgorithm(String key) {
-        // 获取概率量程，生成随机索引
-        int rateRange = repository.getRateRange(key);
-        int randomIndex = secureRandom.nextInt(rateRange);
+    public StrategyRateTableVO loadRateTable(String key, long version) {
+        int[] table = repository.getStrategyAwardSearchRateTable(key);
 
-        // 直接索引寻址，O(1)时间复杂度
-        return repository.getStrategyAwardAssemble(key, randomIndex);
+        return StrategyRateTableVO
+                .builder()
+                .key(key)
+                .version(version)
+                .algorithm(Algorithm.O1.getKey())
+                .rateRange(table.length)
+                .table(table)
+                .build();
     }
 }
\ No newline at end of file
@@ -1,15 +1,14 @@
 package com.c.domain.strategy.service.armory.algorithm.impl;
 
 import com.c.domain.strategy.model.entity.StrategyAwardEntity;
+import com.c.domain.strategy.model.vo.StrategyAwardRangeTableVO;
+import com.c.domain.strategy.model.vo.StrategyRateTableVO;
 import com.c.domain.strategy.service.armory.algorithm.AbstractAlgorithm;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.Arrays;
 import java.util.List;
-import java.util.NavigableMap;
-import java.util.TreeMap;
 
 /**
  * 抽奖算法 - O(LogN) 区间映射实现
@@ -24,63 +23,99 @@ public class OLogNAlgorithm extends AbstractAlgorithm {
 
     /**
      * 装配抽奖策略算法：将奖品概率分布映射到递增的区间轴上
-     * * @param key                    策略标识
      *
+     * @param key                   策略标识
      * @param strategyAwardEntities 奖品配置列表
+     * @param awardCounts           各奖品占用区间长度
      * @param rateRange             量程范围（通常为10000或65535）
-     * @param totalAwardRate        总概率和
      */
-    public void armoryAlgorithm(String key, List<StrategyAwardEntity> strategyAwardEntities, BigDecimal rateRange,
-                                BigDecimal totalAwardRate) {
-
-        // 此处选择 TreeMap 的原因：
-        // 1. 实现 NavigableMap 接口，提供 ceilingEntry/Key 等导航方法，支持 O(log N) 的区间检索。
-        // 2. 局部变量：该 Map 在方法内部创建，属于线程私有（栈封闭），无需担心并发抢夺，故使用 TreeMap 性能优于 ConcurrentSkipListMap。
-        NavigableMap<Integer, Integer> rangeMap = new TreeMap<>();
+    @Override
+    public void armoryAlgorithm(String key, List<StrategyAwardEntity> strategyAwardEntities, int[] awardCounts,
+                                int rateRange) {
 
-        BigDecimal cursor = BigDecimal.ZERO; // 累加游标，用于记录区间上限
+        // 区间表以两个等长原始数组存储：bounds 严格升序，调度时直接 Arrays.binarySearch，无装箱、无重建
+        int size = strategyAwardEntities.size();
+        int[] bounds = new int[size];
+        int[] awardIds = new int[size];
+        int length = 0;
 
-        for (StrategyAwardEntity award : strategyAwardEntities) {
-            // 计算当前奖品占据的区间长度（向下取整，确保不超出总权重）
-            BigDecimal count = rateRange
-                    .multiply(award.getAwardRate())
-                    .divide(totalAwardRate, 0, RoundingMode.FLOOR);
+        int cursor = 0; // 累加游标，用于记录区间上限
 
-            // 【保底策略】概率大于0但计算长度为0时，强行分配1个单位长度，防止小概率奖品“消失”
-            if (count.compareTo(BigDecimal.ZERO) == 0 && award
-                    .getAwardRate()
-                    .compareTo(BigDecimal.ZERO) > 0) {
-                count = BigDecimal.ONE;
-            }
+        for (int i = 0; i < size; i++) {
+            // 零概率奖品不占区间，保证 bounds 严格升序（保底格子已在装配入口折算）
+            if (awardCounts[i] == 0) continue;
 
             // 累加游标，构建区间闭环。例如：奖品1(0-20], 奖品2(20-50]...
-            cursor = cursor.add(count);
-
-            // Key 存储区间上限，Value 存储奖品ID
-            rangeMap.put(cursor.intValue(), award.getAwardId());
+            cursor += awardCounts[i];
+            bounds[length] = cursor;
+            awardIds[length++] = strategyAwardEntities
+                    .get(i)
+                    .getAwardId();
         }
 
         // 【存储逻辑】将构建好的区间表持久化。
-        // 抽奖时将生成 [1, cursor] 之间的随机数，利用 rangeMap.ceilingKey(random) 瞬间定位奖品。
-        repository.storeStrategyAwardSearchRateTable(key, cursor.intValue(), rangeMap);
+        // 抽奖时将生成 [1, cursor] 之间的随机数，利用二分查找定位第一个大于等于该值的区间上限。
+        repository.storeStrategyAwardRangeTable(key, cursor, StrategyAwardRangeTableVO
+                .builder()
+                .bounds(Arrays.copyOf(bounds, length))
+                .awardIds(Arrays.copyOf(awardIds, length))
+                .build());
     }
 
     /**
-     * 执行O(LogN)抽奖寻址：通过红黑树二分查找匹配奖品
+     * 执行O(LogN)抽奖寻址：在本地区间上限数组上二分查找匹配奖品（无装箱、无分配）
      *
-     * @param key 策略装配唯一标识
+     * @param rateTable 概率表副本
      * @return 命中的奖品ID
      */
     @Override
-    public Integer dispatchAlgorithm(String key) {
-        // 获取概率量程和区间映射表
-        int rateRange = repository.getRateRange(key);
-        NavigableMap<Integer, Integer> rangeMap = repository.getRangeMap(key);
+    public Integer dispatchAlgorithm(StrategyRateTableVO rateTable) {
+        // 区间上限升序数组
+        int[] bounds = rateTable.getTable();
 
         // 生成[1, rateRange]随机数，查找第一个大于等于该值的区间上限
-        int random = secureRandom.nextInt(rateRange) + 1;
-        return rangeMap
-                .ceilingEntry(random)
-                .getValue();
+        int random = randomSource.nextInt(rateTable.getRateRange()) + 1;
+        int index = Arrays.binarySearch(bounds, random);
+        if (index < 0) index = -index - 1;
+        return rateTable.getAwardIds()[index];
+    }
+
+    /**
+     * 估算区间表字节数：区间上限与奖品ID两个等长数组
+     */
+    @Override
+    public long estimateTableBytes(int awardCount, int rateRange) {
+        return 2L * Integer.BYTES * awardCount;
+    }
+
+    /**
+     * 单次随机 + 二分查找（约 log2(n) 次比较）
+     */
+    @Override
+    public int estimateLookupSteps(int awardCount) {
+        return 1 + (Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(awardCount, 1)));
+    }
+
+    /**
+     * 加载O(LogN)概率表副本：区间数组对直接作为本地副本，无需任何重建
+     *
+     * @param key     版本化存储 Key
+     * @param version 概率表版本号
+     * @return 不可变概率表副本
+     */
+    @Override
+    public StrategyRateTableVO loadRateTable(String key, long version) {
+        int rateRange = repository.getRateRange(key);
+        StrategyAwardRangeTableVO rangeTable = repository.getStrategyAwardRangeTable(key);
+
+        return StrategyRateTableVO
+                .builder()
+                .key(key)
+                .version(version)
+                .algorithm(Algorithm.OLogN.getKey())
+                .rateRange(rateRange)
+                .table(rangeTable.getBounds())
+                .awardIds(rangeTable.getAwardIds())
+                .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.c.domain.strategy.service.armory.random;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 抽奖随机源接口
+ * 1. 职责：为各抽奖算法提供 [0, bound) 区间的均匀随机整数，屏蔽底层随机数生成器差异。
+ * 2. 约束：实现类必须线程安全，且在高并发调度下不应成为锁竞争热点。
+ * 3. 选型：通过配置项 strategy.armory.random-source 指定生效的实现 Bean。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+public interface IRandomSource {
+
+    /**
+     * 生成 [0, bound) 区间内的均匀随机整数
+     *
+     * @param bound 上界（不含），必须为正数
+     * @return 随机整数
+     */
+    int nextInt(int bound);
+
+    /**
+     * 随机源实现类型枚举
+     * - SplittableRandom: 线程私有的 SplittableRandom，统计质量好、无锁，不具备密码学安全性。
+     * - ThreadLocalRandom: JDK 内置线程本地随机数，吞吐最高，不具备密码学安全性。
+     * - SecureRandom: 分段 SecureRandom 池，保留不可预测性，同时将锁竞争分摊到多个实例。
+     */
+    @Getter
+    @AllArgsConstructor
+    enum Source {
+        /** 线程私有 SplittableRandom */
+        SplittableRandom("splittableRandomSource"),
+
+        /** JDK ThreadLocalRandom */
+        ThreadLocalRandom("threadLocalRandomSource"),
+
+        /** 分段 SecureRandom 池 */
+        SecureRandom("secureRandomSource");
+
+        private final String key;
+    }
+
+}
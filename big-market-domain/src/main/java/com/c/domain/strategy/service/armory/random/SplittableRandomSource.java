@@ -0,0 +1,33 @@
+package com.c.domain.strategy.service.armory.random;
+
+import org.springframework.stereotype.Component;
+
+import java.util.SplittableRandom;
+
+/**
+ * 线程私有 SplittableRandom 随机源
+ * 1. 派生机制：由根实例 split() 为每个线程派生独立序列，派生序列之间统计独立。
+ * 2. 并发模型：仅在线程首次使用时同步派生一次，后续抽样完全无锁。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Component("splittableRandomSource")
+public class SplittableRandomSource implements IRandomSource {
+
+    /** 根随机源，仅用于派生线程私有实例（split 非线程安全，需同步） */
+    private final SplittableRandom root = new SplittableRandom();
+
+    /** 线程私有随机源 */
+    private final ThreadLocal<SplittableRandom> threadRandom = ThreadLocal.withInitial(this::split);
+
+    @Override
+    public int nextInt(int bound) {
+        return threadRandom.get().nextInt(bound);
+    }
+
+    private synchronized SplittableRandom split() {
+        return root.split();
+    }
+
+}
@@ -1,7 +1,7 @@
 package com.c.domain.strategy.service.raffle;
 
 import com.c.domain.strategy.model.entity.StrategyAwardEntity;
-import com.c.domain.strategy.model.vo.RuleTreeVO;
+import com.c.domain.strategy.model.vo.RaffleContextPlanVO;
 import com.c.domain.strategy.model.vo.RuleWeightVO;
 import com.c.domain.strategy.model.vo.StrategyAwardRuleModelVO;
 import com.c.domain.strategy.model.vo.StrategyAwardStockKeyVO;
@@ -11,6 +11,7 @@ import com.c.domain.strategy.service.IRaffleAward;
 import com.c.domain.strategy.service.IRaffleRule;
 import com.c.domain.strategy.service.IRaffleStock;
 import com.c.domain.strategy.service.armory.IStrategyDispatch;
+import com.c.domain.strategy.service.rule.StrategyRuleLocalCache;
 import com.c.domain.strategy.service.rule.chain.ILogicChain;
 import com.c.domain.strategy.service.rule.chain.factory.DefaultChainFactory;
 import com.c.domain.strategy.service.rule.tree.factory.DefaultTreeFactory;
@@ -37,9 +38,22 @@ import java.util.Map;
 @Service
 public class DefaultRaffleStrategy extends AbstractRaffleStrategy implements IRaffleStock, IRaffleAward, IRaffleRule {
 
+    /** 策略规则本地缓存（奖品规则模型、上下文预取计划） */
+    private final StrategyRuleLocalCache ruleLocalCache;
+
     public DefaultRaffleStrategy(IStrategyRepository strategyRepository, IStrategyDispatch strategyDispatch,
-                                 DefaultChainFactory defaultChainFactory, DefaultTreeFactory defaultTreeFactory) {
+                                 DefaultChainFactory defaultChainFactory, DefaultTreeFactory defaultTreeFactory,
+                                 StrategyRuleLocalCache ruleLocalCache) {
         super(strategyRepository, strategyDispatch, defaultChainFactory, defaultTreeFactory);
+        this.ruleLocalCache = ruleLocalCache;
+    }
+
+    /**
+     * 抽奖上下文预取计划：责任链挂载权重规则时预取累计次数，决策树含次数锁节点时预取当日次数
+     */
+    @Override
+    protected RaffleContextPlanVO queryRaffleContextPlan(Long strategyId) {
+        return ruleLocalCache.getRaffleContextPlan(strategyId);
     }
 
     /**
@@ -80,9 +94,9 @@ public class DefaultRaffleStrategy extends AbstractRaffleStrategy implements IRa
     public DefaultTreeFactory.StrategyAwardVO raffleLogicTree(String userId, Long strategyId, Integer awardId,
                                                               Date endDateTime) {
 
-        // 1. 检索该奖品是否配置了关联的规则模型（例如：该奖品是否挂载了库存锁或次数锁）
-        StrategyAwardRuleModelVO strategyAwardRuleModelVO = strategyRepository.queryStrategyAwardRuleModel(strategyId
-                , awardId);
+        // 1. 检索该奖品是否配置了关联的规则模型（本地缓存，按策略整批加载，未挂载规则的奖品同样命中缓存）
+        StrategyAwardRuleModelVO strategyAwardRuleModelVO = ruleLocalCache.getStrategyAwardRuleModel(strategyId,
+                awardId);
 
         // 2. 快速路径：若该奖品未配置任何后置规则树，说明直接中奖，无需额外校验
         if (null == strategyAwardRuleModelVO) {
@@ -92,15 +106,14 @@ public class DefaultRaffleStrategy extends AbstractRaffleStrategy implements IRa
                     .build();
         }
 
-        // 3. 拓扑加载：根据 RuleModels 获取完整的决策树视图（节点 + 连线）
-        RuleTreeVO ruleTreeVO = strategyRepository.queryRuleTreeVOByTreeId(strategyAwardRuleModelVO.getRuleModels());
-        if (null == ruleTreeVO) {
+        // 3. 引擎加载：按 RuleModels（规则树ID）获取已编译的决策树引擎，首次使用时加载拓扑并编译
+        IDecisionTreeEngine treeEngine = defaultTreeFactory.openLogicTree(strategyAwardRuleModelVO.getRuleModels());
+        if (null == treeEngine) {
             log.error("决策引擎初始化异常，未查询到对应的规则树配置: {}", strategyAwardRuleModelVO.getRuleModels());
             throw new RuntimeException("规则树视图加载异常");
         }
 
-        // 4. 引擎驱动：加载决策引擎并从根节点开始执行逻辑流转
-        IDecisionTreeEngine treeEngine = defaultTreeFactory.openLogicTree(ruleTreeVO);
+        // 4. 引擎驱动：从根节点开始执行逻辑流转
         return treeEngine.process(userId, strategyId, awardId, endDateTime);
     }
 
@@ -0,0 +1,41 @@
+package com.c.domain.strategy.service.raffle;
+
+import com.c.domain.strategy.model.vo.RaffleContextVO;
+
+/**
+ * 抽奖上下文线程绑定
+ * 1. 绑定：抽奖流程入口预取上下文后绑定至当前线程，责任链与决策树节点无需改动方法签名即可读取。
+ * 2. 校验：读取时比对用户与策略，不匹配（如节点被单独调用）返回null，由调用方回退到仓储查询。
+ * 3. 释放：抽奖流程结束时必须在 finally 中解绑，防止线程池复用导致上下文串用。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+public final class RaffleContextHolder {
+
+    private static final ThreadLocal<RaffleContextVO> CONTEXT = new ThreadLocal<>();
+
+    private RaffleContextHolder() {
+    }
+
+    public static void bind(RaffleContextVO raffleContext) {
+        CONTEXT.set(raffleContext);
+    }
+
+    /**
+     * 获取当前线程绑定的抽奖上下文
+     *
+     * @param userId     用户ID
+     * @param strategyId 策略ID
+     * @return 抽奖上下文，未绑定或不匹配返回null
+     */
+    public static RaffleContextVO current(String userId, Long strategyId) {
+        RaffleContextVO raffleContext = CONTEXT.get();
+        return null != raffleContext && raffleContext.matches(userId, strategyId) ? raffleContext : null;
+    }
+
+    public static void unbind() {
+        CONTEXT.remove();
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.c.domain.strategy.service.rule;
+
+import com.c.domain.strategy.model.entity.StrategyAwardEntity;
+import com.c.domain.strategy.model.entity.StrategyEntity;
+import com.c.domain.strategy.model.vo.RaffleContextPlanVO;
+import com.c.domain.strategy.model.vo.RuleTreeNodeVO;
+import com.c.domain.strategy.model.vo.RuleTreeVO;
+import com.c.domain.strategy.model.vo.StrategyAwardRuleModelVO;
+import com.c.domain.strategy.model.vo.StrategyRuleBlacklistCompiledVO;
+import com.c.domain.strategy.model.vo.StrategyRuleWeightCompiledVO;
+import com.c.domain.strategy.repository.IStrategyRepository;
+import com.c.domain.strategy.service.rule.chain.factory.DefaultChainFactory;
+import com.c.domain.strategy.service.rule.tree.factory.DefaultTreeFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 策略规则 JVM 本地编译缓存
+ * 1. 预编译：权重规则编译为升序阈值数组（二分匹配），黑名单编译为哈希集合（O(1) 判定），抽奖时不再查库与切分字符串。
+ * 2. 奖品规则：按策略整批加载 奖品ID -> 规则模型（决策树ID）映射，决策树入口不再逐次查询 strategy_award。
+ * 3. 预取计划：由责任链规则与奖品决策树节点推导单次抽奖需要预取的用户计数器，普通策略不预取。
+ * 4. 负缓存：未配置规则的策略/奖品同样被缓存（EMPTY 标记或映射缺席），避免每次抽奖穿透到数据库。
+ * 5. 生命周期：策略装配时主动刷新；默认抽奖池版本广播时剔除，下一次抽奖懒加载最新配置。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Slf4j
+@Component
+public class StrategyRuleLocalCache {
+
+    @Resource
+    private IStrategyRepository repository;
+
+    /** 策略ID -> 权重规则编译结果 */
+    private final Map<Long, StrategyRuleWeightCompiledVO> ruleWeightMap = new ConcurrentHashMap<>();
+
+    /** 策略ID -> 黑名单规则编译结果 */
+    private final Map<Long, StrategyRuleBlacklistCompiledVO> ruleBlacklistMap = new ConcurrentHashMap<>();
+
+    /** 策略ID -> (奖品ID -> 奖品规则模型)，仅收录挂载了规则的奖品 */
+    private final Map<Long, Map<Integer, StrategyAwardRuleModelVO>> awardRuleModelMap = new ConcurrentHashMap<>();
+
+    /** 策略ID -> 抽奖上下文预取计划 */
+    private final Map<Long, RaffleContextPlanVO> raffleContextPlanMap = new ConcurrentHashMap<>();
+
+    /**
+     * 获取权重规则编译结果（未命中时加载并编译）
+     *
+     * @param strategyId 策略ID
+     * @return 编译结果，未配置返回 {@link StrategyRuleWeightCompiledVO#EMPTY}
+     */
+    public StrategyRuleWeightCompiledVO getRuleWeight(Long strategyId) {
+        // JDK8 的 computeIfAbsent 命中时也会锁桶，热路径先无锁读取
+        StrategyRuleWeightCompiledVO ruleWeight = ruleWeightMap.get(strategyId);
+        if (null != ruleWeight) return ruleWeight;
+        return ruleWeightMap.computeIfAbsent(strategyId, this::compileRuleWeight);
+    }
+
+    /**
+     * 获取黑名单规则编译结果（未命中时加载并编译）
+     *
+     * @param strategyId 策略ID
+     * @return 编译结果，未配置返回 {@link StrategyRuleBlacklistCompiledVO#EMPTY}
+     */
+    public StrategyRuleBlacklistCompiledVO getRuleBlacklist(Long strategyId) {
+        StrategyRuleBlacklistCompiledVO ruleBlacklist = ruleBlacklistMap.get(strategyId);
+        if (null != ruleBlacklist) return ruleBlacklist;
+        return ruleBlacklistMap.computeIfAbsent(strategyId, this::compileRuleBlacklist);
+    }
+
+    /**
+     * 获取奖品挂载的规则模型（未命中时整批加载该策略全部奖品）
+     *
+     * @param strategyId 策略ID
+     * @param awardId    奖品ID
+     * @return 奖品规则模型VO，未挂载规则返回null
+     */
+    public StrategyAwardRuleModelVO getStrategyAwardRuleModel(Long strategyId, Integer awardId) {
+        Map<Integer, StrategyAwardRuleModelVO> ruleModels = awardRuleModelMap.get(strategyId);
+        if (null == ruleModels) ruleModels = awardRuleModelMap.computeIfAbsent(strategyId, this::loadAwardRuleModels);
+        return ruleModels.get(awardId);
+    }
+
+    /**
+     * 获取抽奖上下文预取计划（未命中时按责任链与决策树配置推导）
+     *
+     * @param strategyId 策略ID
+     * @return 预取计划，无需预取返回 {@link RaffleContextPlanVO#EMPTY}
+     */
+    public RaffleContextPlanVO getRaffleContextPlan(Long strategyId) {
+        RaffleContextPlanVO raffleContextPlan = raffleContextPlanMap.get(strategyId);
+        if (null != raffleContextPlan) return raffleContextPlan;
+        return raffleContextPlanMap.computeIfAbsent(strategyId, this::compileRaffleContextPlan);
+    }
+
+    /**
+     * 刷新策略规则编译结果（装配时调用，确保规则变更后立即生效）
+     *
+     * @param strategyId 策略ID
+     */
+    public void refresh(Long strategyId) {
+        ruleWeightMap.put(strategyId, compileRuleWeight(strategyId));
+        ruleBlacklistMap.put(strategyId, compileRuleBlacklist(strategyId));
+        awardRuleModelMap.put(strategyId, loadAwardRuleModels(strategyId));
+        raffleContextPlanMap.remove(strategyId); // 预取计划依赖决策树配置，下一次抽奖懒加载
+        log.info("策略规则本地缓存已刷新 strategyId:{}", strategyId);
+    }
+
+    /**
+     * 剔除策略规则编译结果，下一次抽奖懒加载
+     *
+     * @param strategyId 策略ID
+     */
+    public void invalidate(Long strategyId) {
+        ruleWeightMap.remove(strategyId);
+        ruleBlacklistMap.remove(strategyId);
+        awardRuleModelMap.remove(strategyId);
+        raffleContextPlanMap.remove(strategyId);
+    }
+
+    private RaffleContextPlanVO compileRaffleContextPlan(Long strategyId) {
+        // 1. 累计次数：责任链挂载权重规则且权重配置非空
+        StrategyEntity strategy = repository.queryStrategyEntityByStrategyId(strategyId);
+        boolean totalRaffleCount = null != strategy &&
+                strategy.hasRuleModel(DefaultChainFactory.LogicModel.RULE_WEIGHT.getCode()) &&
+                !getRuleWeight(strategyId).isEmpty();
+
+        // 2. 当日次数：任一奖品决策树包含次数锁节点
+        boolean todayRaffleCount = false;
+        Map<Integer, StrategyAwardRuleModelVO> ruleModels = awardRuleModelMap.get(strategyId);
+        if (null == ruleModels) ruleModels = loadAwardRuleModels(strategyId);
+        for (StrategyAwardRuleModelVO ruleModel : ruleModels.values()) {
+            if (hasRuleLockNode(ruleModel.getRuleModels())) {
+                todayRaffleCount = true;
+                break;
+            }
+        }
+        return RaffleContextPlanVO.of(totalRaffleCount, todayRaffleCount);
+    }
+
+    private boolean hasRuleLockNode(String treeId) {
+        RuleTreeVO ruleTreeVO = repository.queryRuleTreeVOByTreeId(treeId);
+        if (null == ruleTreeVO || null == ruleTreeVO.getTreeNodeMap()) return false;
+        for (RuleTreeNodeVO treeNode : ruleTreeVO
+                .getTreeNodeMap()
+                .values()) {
+            if (DefaultTreeFactory.LogicModel.RULE_LOCK
+                    .getCode()
+                    .equals(treeNode.getRuleKey())) return true;
+        }
+        return false;
+    }
+
+    private Map<Integer, StrategyAwardRuleModelVO> loadAwardRuleModels(Long strategyId) {
+        // 奖品列表已有 Redis 缓存，整批读取后仅保留挂载了规则的奖品
+        List<StrategyAwardEntity> strategyAwardEntities = repository.queryStrategyAwardList(strategyId);
+        if (null == strategyAwardEntities || strategyAwardEntities.isEmpty()) return Collections.emptyMap();
+
+        Map<Integer, StrategyAwardRuleModelVO> ruleModels = new HashMap<>();
+        for (StrategyAwardEntity strategyAward : strategyAwardEntities) {
+            if (StringUtils.isBlank(strategyAward.getRuleModels())) continue;
+            ruleModels.put(strategyAward.getAwardId(), StrategyAwardRuleModelVO
+                    .builder()
+                    .ruleModels(strategyAward.getRuleModels())
+                    .build());
+        }
+        return ruleModels;
+    }
+
+    private StrategyRuleWeightCompiledVO compileRuleWeight(Long strategyId) {
+        String ruleValue = repository.queryStrategyRuleValue(strategyId,
+                DefaultChainFactory.LogicModel.RULE_WEIGHT.getCode());
+        return StrategyRuleWeightCompiledVO.compile(ruleValue);
+    }
+
+    private StrategyRuleBlacklistCompiledVO compileRuleBlacklist(Long strategyId) {
+        String ruleValue = repository.queryStrategyRuleValue(strategyId,
+                DefaultChainFactory.LogicModel.RULE_BLACKLIST.getCode());
+        StrategyRuleBlacklistCompiledVO ruleBlacklist = StrategyRuleBlacklistCompiledVO.compile(ruleValue);
+        if (ruleBlacklist.isEmpty() && StringUtils.isNotBlank(ruleValue)) {
+            log.error("黑名单规则配置格式错误，请检查 strategyId:{} ruleValue:{}", strategyId, ruleValue);
+        }
+        return ruleBlacklist;
+    }
+
+}
@@ -4,54 +4,88 @@ import com.c.domain.strategy.model.entity.StrategyEntity;
 import com.c.domain.strategy.repository.IStrategyRepository;
 import com.c.domain.strategy.service.rule.chain.ILogicChain;
 import lombok.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 抽奖责任链工厂
  * 职责：根据策略配置动态组装执行链路，确保业务规则有序执行并最终由默认节点兜底。
+ * 1. 节点隔离：链路节点为原型 Bean，每个策略持有独立节点实例，不同规则顺序的策略互不干扰。
+ * 2. 编译缓存：每个策略仅在首次抽奖时组装一次，组装完成后链路不再变更，抽奖时开启链路无分配、无 Redis 访问。
+ * 3. 失效机制：策略重装配（版本广播）时剔除缓存，下一次抽奖按最新规则配置重新组装。
  *
  * @author cyh
  * @date 2026/02/21
  */
+@Slf4j
 @Service
 public class DefaultChainFactory {
 
-    /* 逻辑链节点映射表 (Bean名称 -> 节点实现) */
-    private final Map<String, ILogicChain> logicChainMap;
+    /* Spring 上下文：按 Bean 名称获取原型链路节点 */
+    private final ApplicationContext applicationContext;
 
     /* 策略仓储服务 */
     private final IStrategyRepository strategyRepository;
 
-    public DefaultChainFactory(Map<String, ILogicChain> logicChainMap, IStrategyRepository strategyRepository) {
-        this.logicChainMap = logicChainMap;
+    /* 已编译链路缓存 (策略ID -> 链路首节点) */
+    private final Map<Long, ILogicChain> strategyChainGroup = new ConcurrentHashMap<>();
+
+    public DefaultChainFactory(ApplicationContext applicationContext, IStrategyRepository strategyRepository) {
+        this.applicationContext = applicationContext;
         this.strategyRepository = strategyRepository;
     }
 
     /**
-     * 装配并开启逻辑链路
+     * 开启逻辑链路（命中缓存直接返回已编译链路）
      *
      * @param strategyId 策略ID
      * @return 组装完成的责任链首节点
      */
     public ILogicChain openLogicChain(Long strategyId) {
+        // 先无锁读取：JDK8 的 computeIfAbsent 命中时仍会对桶加锁，且方法引用每次调用都会分配对象
+        ILogicChain logicChain = strategyChainGroup.get(strategyId);
+        if (null != logicChain) return logicChain;
+        return strategyChainGroup.computeIfAbsent(strategyId, this::compileLogicChain);
+    }
+
+    /**
+     * 剔除策略的已编译链路，下一次开启时按最新规则配置重新组装
+     *
+     * @param strategyId 策略ID
+     */
+    public void invalidate(Long strategyId) {
+        if (null != strategyChainGroup.remove(strategyId)) {
+            log.info("抽奖责任链缓存已失效 strategyId: {}", strategyId);
+        }
+    }
+
+    /**
+     * 编译逻辑链路：为策略创建独立节点实例并串联，发布到缓存后不再修改
+     *
+     * @param strategyId 策略ID
+     * @return 责任链首节点
+     */
+    private ILogicChain compileLogicChain(Long strategyId) {
         StrategyEntity strategy = strategyRepository.queryStrategyEntityByStrategyId(strategyId);
         String[] ruleModels = strategy.ruleModels();
 
         // 准备兜底节点（默认抽奖逻辑）
-        ILogicChain defaultChain = logicChainMap.get(LogicModel.RULE_DEFAULT.getCode());
+        ILogicChain defaultChain = applicationContext.getBean(LogicModel.RULE_DEFAULT.getCode(), ILogicChain.class);
 
         // 1. 无业务规则配置时，直接返回兜底节点
         if (null == ruleModels || ruleModels.length == 0) return defaultChain;
 
         // 2. 链路初始化：以配置的第一个规则作为首节点
-        ILogicChain head = logicChainMap.get(ruleModels[0]);
+        ILogicChain head = applicationContext.getBean(ruleModels[0], ILogicChain.class);
         ILogicChain current = head;
 
         // 3. 循环挂载：逐个串联后续规则节点，并实时更新 current 指针
         for (int i = 1; i < ruleModels.length; i++) {
-            ILogicChain nextChain = logicChainMap.get(ruleModels[i]);
+            ILogicChain nextChain = applicationContext.getBean(ruleModels[i], ILogicChain.class);
             current = current.appendNext(nextChain);
         }
 
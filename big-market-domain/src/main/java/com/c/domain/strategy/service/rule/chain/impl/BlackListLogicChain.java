@@ -1,11 +1,12 @@
 package com.c.domain.strategy.service.rule.chain.impl;
 
-import com.c.domain.strategy.repository.IStrategyRepository;
+import com.c.domain.strategy.model.vo.StrategyRuleBlacklistCompiledVO;
+import com.c.domain.strategy.service.rule.StrategyRuleLocalCache;
 import com.c.domain.strategy.service.rule.chain.AbstractLogicChain;
 import com.c.domain.strategy.service.rule.chain.factory.DefaultChainFactory;
-import com.c.types.common.Constants;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
@@ -19,48 +20,38 @@ import javax.annotation.Resource;
  */
 @Slf4j
 @Component("rule_blacklist")
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class BlackListLogicChain extends AbstractLogicChain {
 
-    /* 策略仓储服务 */
+    /* 策略规则本地编译缓存 */
     @Resource
-    private IStrategyRepository strategyRepository;
+    private StrategyRuleLocalCache ruleLocalCache;
 
     @Override
     public DefaultChainFactory.StrategyAwardVO logic(String userId, Long strategyId) {
         String ruleModel = ruleModel();
-        log.info("抽奖责任链-黑名单处理开始 userId: {}, strategyId: {}, ruleModel: {}", userId, strategyId, ruleModel);
+        log.debug("抽奖责任链-黑名单处理开始 userId: {}, strategyId: {}, ruleModel: {}", userId, strategyId, ruleModel);
 
-        // 1. 获取规则配置值 (例如: "101:user001,user002")
-        String ruleValue = strategyRepository.queryStrategyRuleValue(strategyId, ruleModel);
-        if (StringUtils.isBlank(ruleValue)) {
-            log.info("抽奖责任链-黑名单规则未配置，直接放行. strategyId: {}", strategyId);
+        // 1. 读取预编译黑名单规则（本地缓存，配置示例: "101:user001,user002"）
+        StrategyRuleBlacklistCompiledVO ruleBlacklist = ruleLocalCache.getRuleBlacklist(strategyId);
+        if (ruleBlacklist.isEmpty()) {
+            log.debug("抽奖责任链-黑名单规则未配置，直接放行. strategyId: {}", strategyId);
             return nextLogic(userId, strategyId);
         }
 
-        // 2. 解析规则配置并进行防御性校验
-        String[] configParts = ruleValue.split(Constants.COLON);
-        if (configParts.length < 2) {
-            log.error("黑名单规则配置格式错误，请检查: {}", ruleValue);
-            return nextLogic(userId, strategyId);
-        }
-
-        Integer awardId = Integer.parseInt(configParts[0]);
-        String[] blackListUsers = configParts[1].split(Constants.SPLIT);
-
-        // 3. 校验用户是否命中黑名单
-        for (String blackUserId : blackListUsers) {
-            if (userId.equals(blackUserId)) {
-                log.info("抽奖责任链-黑名单命中，截断流程返回奖品. userId: {}, strategyId: {}, awardId: {}", userId, strategyId, awardId);
-                return DefaultChainFactory.StrategyAwardVO
-                        .builder()
-                        .awardId(awardId)
-                        .logicModel(ruleModel())
-                        .build();
-            }
+        // 2. 哈希集合校验用户是否命中黑名单
+        if (ruleBlacklist.contains(userId)) {
+            Integer awardId = ruleBlacklist.getAwardId();
+            log.debug("抽奖责任链-黑名单命中，截断流程返回奖品. userId: {}, strategyId: {}, awardId: {}", userId, strategyId, awardId);
+            return DefaultChainFactory.StrategyAwardVO
+                    .builder()
+                    .awardId(awardId)
+                    .logicModel(ruleModel())
+                    .build();
         }
 
-        // 4. 未命中黑名单，流转至下一责任链节点
-        log.info("抽奖责任链-黑名单放行 userId: {}, strategyId: {}", userId, strategyId);
+        // 3. 未命中黑名单，流转至下一责任链节点
+        log.debug("抽奖责任链-黑名单放行 userId: {}, strategyId: {}", userId, strategyId);
         return nextLogic(userId, strategyId);
     }
 
@@ -4,6 +4,8 @@ import com.c.domain.strategy.service.armory.IStrategyDispatch;
 import com.c.domain.strategy.service.rule.chain.AbstractLogicChain;
 import com.c.domain.strategy.service.rule.chain.factory.DefaultChainFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
@@ -17,6 +19,7 @@ import javax.annotation.Resource;
  */
 @Slf4j
 @Component("rule_default")
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class DefaultLogicChain extends AbstractLogicChain {
 
     /* 策略调度服务 */
@@ -35,7 +38,7 @@ public class DefaultLogicChain extends AbstractLogicChain {
         // 1. 从默认的全量奖品池中随机获取奖品ID
         Integer awardId = strategyDispatch.getRandomAwardId(strategyId);
 
-        log.info("抽奖责任链-默认兜底节点处理完成 userId: {}, strategyId: {}, awardId: {}", userId, strategyId, awardId);
+        log.debug("抽奖责任链-默认兜底节点处理完成 userId: {}, strategyId: {}, awardId: {}", userId, strategyId, awardId);
 
         // 2. 封装返回结果，作为末端节点不再流转
         return DefaultChainFactory.StrategyAwardVO
@@ -1,18 +1,19 @@
 package com.c.domain.strategy.service.rule.chain.impl;
 
+import com.c.domain.strategy.model.vo.RaffleContextVO;
+import com.c.domain.strategy.model.vo.StrategyRuleWeightCompiledVO;
 import com.c.domain.strategy.repository.IStrategyRepository;
 import com.c.domain.strategy.service.armory.IStrategyDispatch;
+import com.c.domain.strategy.service.raffle.RaffleContextHolder;
+import com.c.domain.strategy.service.rule.StrategyRuleLocalCache;
 import com.c.domain.strategy.service.rule.chain.AbstractLogicChain;
 import com.c.domain.strategy.service.rule.chain.factory.DefaultChainFactory;
-import com.c.types.common.Constants;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * 抽奖责任链 - 权重消耗过滤节点
@@ -23,12 +24,17 @@ import java.util.Map;
  */
 @Slf4j
 @Component("rule_weight")
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class RuleWeightLogicChain extends AbstractLogicChain {
 
     /* 策略仓储服务 */
     @Resource
     private IStrategyRepository strategyRepository;
 
+    /* 策略规则本地编译缓存 */
+    @Resource
+    private StrategyRuleLocalCache ruleLocalCache;
+
     /* 策略调度服务 */
     @Resource
     private IStrategyDispatch strategyDispatch;
@@ -36,38 +42,29 @@ public class RuleWeightLogicChain extends AbstractLogicChain {
     @Override
     public DefaultChainFactory.StrategyAwardVO logic(String userId, Long strategyId) {
         String ruleModel = ruleModel();
-        log.info("抽奖责任链-权重过滤开始 userId: {}, strategyId: {}, ruleModel: {}", userId, strategyId, ruleModel);
-
-        // 1. 查询权重规则配置。格式示例："4000:101,102 5000:101,102,103"
-        String ruleValue = strategyRepository.queryStrategyRuleValue(strategyId, ruleModel);
-        if (StringUtils.isBlank(ruleValue)) {
-            log.info("抽奖责任链-权重规则未配置，直接放行. strategyId: {}", strategyId);
-            return nextLogic(userId, strategyId);
-        }
+        log.debug("抽奖责任链-权重过滤开始 userId: {}, strategyId: {}, ruleModel: {}", userId, strategyId, ruleModel);
 
-        // 2. 解析规则配置
-        Map<Long, String> ruleValueMap = getAnalyticalValue(ruleValue);
-        if (ruleValueMap.isEmpty()) {
-            log.warn("抽奖责任链-权重规则解析为空，直接放行. strategyId: {}", strategyId);
+        // 1. 读取预编译权重规则（本地缓存，格式示例："4000:101,102 5000:101,102,103"）
+        StrategyRuleWeightCompiledVO ruleWeight = ruleLocalCache.getRuleWeight(strategyId);
+        if (ruleWeight.isEmpty()) {
+            log.debug("抽奖责任链-权重规则未配置，直接放行. strategyId: {}", strategyId);
             return nextLogic(userId, strategyId);
         }
 
-        // 3. 获取用户累计抽奖次数
-        Integer userRaffleCount = strategyRepository.queryTotalUserRaffleCount(userId, strategyId);
+        // 2. 获取用户累计抽奖次数，优先读取抽奖上下文预取值
+        RaffleContextVO raffleContext = RaffleContextHolder.current(userId, strategyId);
+        Integer userRaffleCount = null != raffleContext && null != raffleContext.getTotalRaffleCount() ?
+                raffleContext.getTotalRaffleCount() :
+                strategyRepository.queryTotalUserRaffleCount(userId, strategyId);
 
-        // 4. 寻找匹配档位 (寻找配置中 <= 用户当前抽奖次数的最大阈值)
-        Long matchedKey = ruleValueMap
-                .keySet()
-                .stream()
-                .filter(key -> userRaffleCount >= key)
-                .max(Long::compare)
-                .orElse(null);
+        // 3. 二分查找匹配档位 (配置中 <= 用户当前抽奖次数的最大阈值)
+        String ruleWeightValue = ruleWeight.match(null == userRaffleCount ? 0L : userRaffleCount);
 
-        // 5. 判定匹配结果：若命中则截断责任链后续流程，直接产出奖品
-        if (matchedKey != null) {
-            Integer awardId = strategyDispatch.getRandomAwardId(strategyId, ruleValueMap.get(matchedKey));
-            log.info("抽奖责任链-权重匹配成功 userId: {}, strategyId: {}, 命中档位: {}, 产出奖品ID: {}", userId, strategyId, matchedKey,
-                    awardId);
+        // 4. 判定匹配结果：若命中则截断责任链后续流程，直接产出奖品
+        if (null != ruleWeightValue) {
+            Integer awardId = strategyDispatch.getRandomAwardId(strategyId, ruleWeightValue);
+            log.debug("抽奖责任链-权重匹配成功 userId: {}, strategyId: {}, 命中档位: {}, 产出奖品ID: {}", userId, strategyId,
+                    ruleWeightValue, awardId);
             return DefaultChainFactory.StrategyAwardVO
                     .builder()
                     .awardId(awardId)
@@ -75,8 +72,8 @@ public class RuleWeightLogicChain extends AbstractLogicChain {
                     .build();
         }
 
-        // 6. 边界处理：用户抽奖次数未达到任何权重门槛，放行流转至后续节点（如默认抽奖节点）
-        log.info("抽奖责任链-权重放行（累计抽奖次数未达标） userId: {}, strategyId: {}, 累计次数: {}", userId, strategyId, userRaffleCount);
+        // 5. 边界处理：用户抽奖次数未达到任何权重门槛，放行流转至后续节点（如默认抽奖节点）
+        log.debug("抽奖责任链-权重放行（累计抽奖次数未达标） userId: {}, strategyId: {}, 累计次数: {}", userId, strategyId, userRaffleCount);
         return nextLogic(userId, strategyId);
     }
 
@@ -93,25 +90,6 @@ public class RuleWeightLogicChain extends AbstractLogicChain {
         return next().logic(userId, strategyId);
     }
 
-    /**
-     * 权重配置解析工具
-     * 将 "4000:101,102" 格式解析为有序 Map
-     */
-    private Map<Long, String> getAnalyticalValue(String ruleValue) {
-        if (StringUtils.isBlank(ruleValue)) return Collections.emptyMap();
-
-        String[] ruleValueGroups = ruleValue.split(Constants.SPACE);
-        Map<Long, String> ruleValueMap = new HashMap<>();
-
-        for (String group : ruleValueGroups) {
-            if (StringUtils.isBlank(group)) continue;
-            String[] parts = group.split(Constants.COLON);
-            if (parts.length != 2) continue;
-            ruleValueMap.put(Long.parseLong(parts[0]), group);
-        }
-        return ruleValueMap;
-    }
-
     @Override
     protected String ruleModel() {
         return DefaultChainFactory.LogicModel.RULE_WEIGHT.getCode();
@@ -30,4 +30,30 @@ public interface ILogicTreeNode {
      */
     DefaultTreeFactory.TreeActionEntity logic(String userId, Long strategyId, Integer awardId, String ruleValue, Date endDateTime);
 
+    /**
+     * 预解析节点配置值（规则树编译阶段每个节点执行一次），默认不解析
+     *
+     * @param ruleValue 节点配置值
+     * @return 解析后的配置值，供 {@link #logic(String, Long, Integer, String, Object, Date)} 直接使用
+     */
+    default Object parseRuleValue(String ruleValue) {
+        return ruleValue;
+    }
+
+    /**
+     * 使用预解析配置值执行节点判定（编译后的决策树引擎调用），默认回退为按原始配置值执行
+     *
+     * @param userId          用户唯一标识
+     * @param strategyId      策略配置 ID
+     * @param awardId         预抽中的奖品 ID
+     * @param ruleValue       节点原始配置值
+     * @param parsedRuleValue {@link #parseRuleValue(String)} 的解析结果
+     * @param endDateTime     活动截止时间
+     * @return 决策动作实体
+     */
+    default DefaultTreeFactory.TreeActionEntity logic(String userId, Long strategyId, Integer awardId,
+                                                      String ruleValue, Object parsedRuleValue, Date endDateTime) {
+        return logic(userId, strategyId, awardId, ruleValue, endDateTime);
+    }
+
 }
\ No newline at end of file
@@ -1,23 +1,32 @@
 package com.c.domain.strategy.service.rule.tree.factory;
 
+import com.c.domain.strategy.model.entity.StrategyAwardEntity;
 import com.c.domain.strategy.model.vo.RuleLogicCheckTypeVO;
 import com.c.domain.strategy.model.vo.RuleTreeVO;
+import com.c.domain.strategy.repository.IStrategyRepository;
 import com.c.domain.strategy.service.rule.tree.ILogicTreeNode;
 import com.c.domain.strategy.service.rule.tree.factory.engine.IDecisionTreeEngine;
 import com.c.domain.strategy.service.rule.tree.factory.engine.impl.DecisionTreeEngine;
 import lombok.*;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 规则树工厂类
  * * 核心职责：作为决策树引擎的创建中心，负责将 Spring 容器注入的逻辑节点组（Strategy）
  * 与具体的规则树配置（VO）进行解耦装配，生成可执行的引擎实例。
+ * * 编译缓存：引擎构造时完成规则树编译，编译结果不可变，按 treeId 缓存后供所有抽奖请求共享；
+ * 策略重装配时按策略剔除其奖品挂载的决策树，下一次开启重新编译。
  *
  * @author cyh
  * @date 2026/01/19
  */
+@Slf4j
 @Service
 public class DefaultTreeFactory {
 
@@ -27,17 +36,58 @@ public class DefaultTreeFactory {
      */
     private final Map<String, ILogicTreeNode> logicTreeNodeGroup;
 
+    /** 策略仓储服务：缓存未命中时加载规则树配置 */
+    private final IStrategyRepository strategyRepository;
+
+    /** 已编译决策树引擎缓存 (treeId -> 引擎) */
+    private final Map<String, IDecisionTreeEngine> treeEngineGroup = new ConcurrentHashMap<>();
+
+    public DefaultTreeFactory(Map<String, ILogicTreeNode> logicTreeNodeGroup, IStrategyRepository strategyRepository) {
+        this.logicTreeNodeGroup = logicTreeNodeGroup;
+        this.strategyRepository = strategyRepository;
+    }
+
     /**
-     * 构造器注入：Spring会自动将所有ILogicTreeNode实现类注入到该Map
-     * Key=组件的名称（如@Component("rule_lock")的"rule_lock"）
+     * 按规则树ID开启已编译的决策树引擎（首次使用时加载并编译，之后直接命中缓存）
+     *
+     * @param treeId 规则树ID
+     * @return 决策树引擎实例，规则树未配置返回null
      */
-    public DefaultTreeFactory(Map<String, ILogicTreeNode> logicTreeNodeGroup) {
-        this.logicTreeNodeGroup = logicTreeNodeGroup;
+    public IDecisionTreeEngine openLogicTree(String treeId) {
+        IDecisionTreeEngine treeEngine = treeEngineGroup.get(treeId);
+        if (null != treeEngine) return treeEngine;
+
+        RuleTreeVO ruleTreeVO = strategyRepository.queryRuleTreeVOByTreeId(treeId);
+        if (null == ruleTreeVO) return null;
+        return treeEngineGroup.computeIfAbsent(treeId, key -> openLogicTree(ruleTreeVO));
     }
 
+    /**
+     * 剔除已编译的决策树引擎，下一次开启时重新加载编译
+     *
+     * @param treeId 规则树ID
+     */
+    public void invalidate(String treeId) {
+        if (null != treeEngineGroup.remove(treeId)) {
+            log.info("决策树引擎缓存已失效 treeId: {}", treeId);
+        }
+    }
+
+    /**
+     * 剔除策略下全部奖品挂载的已编译决策树引擎（策略重装配时调用）
+     *
+     * @param strategyId 策略ID
+     */
+    public void invalidateByStrategyId(Long strategyId) {
+        List<StrategyAwardEntity> strategyAwardEntities = strategyRepository.queryStrategyAwardList(strategyId);
+        if (null == strategyAwardEntities) return;
+        for (StrategyAwardEntity strategyAward : strategyAwardEntities) {
+            if (StringUtils.isNotBlank(strategyAward.getRuleModels())) invalidate(strategyAward.getRuleModels());
+        }
+    }
 
     /**
-     * 创建决策树引擎实例
+     * 创建决策树引擎实例（即时编译，不缓存）
      * 设计意图：工厂方法封装引擎创建细节，对外屏蔽DecisionTreeEngine的构造器参数
      *
      * @param ruleTreeVO 规则树配置数据（包含树结构、连线、节点信息）
@@ -1,5 +1,6 @@
 package com.c.domain.strategy.service.rule.tree.factory.engine.impl;
 
+import com.c.domain.strategy.model.vo.RuleLimitTypeVO;
 import com.c.domain.strategy.model.vo.RuleLogicCheckTypeVO;
 import com.c.domain.strategy.model.vo.RuleTreeNodeLineVO;
 import com.c.domain.strategy.model.vo.RuleTreeNodeVO;
@@ -7,19 +8,24 @@ import com.c.domain.strategy.model.vo.RuleTreeVO;
 import com.c.domain.strategy.service.rule.tree.ILogicTreeNode;
 import com.c.domain.strategy.service.rule.tree.factory.DefaultTreeFactory;
 import com.c.domain.strategy.service.rule.tree.factory.engine.IDecisionTreeEngine;
+import com.c.domain.strategy.service.trace.RaffleTraceHolder;
+import com.c.types.enums.ResponseCode;
+import com.c.types.exception.AppException;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Arrays;
 import java.util.Date;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
  * 决策树引擎实现类 (Decision Tree Execution Engine)
  * 职责：负责解析并驱动规则树的拓扑结构，根据节点逻辑返回值进行路径寻优。
  * 核心机制：
- * 1. 状态流转：基于 While 循环模拟有向无环图 (DAG) 的遍历。
- * 2. 节点解耦：逻辑节点 (ILogicTreeNode) 仅关注业务判定，引擎关注节点间的跳转逻辑。
+ * 1. 预编译：构造时将 RuleTreeVO 编译为数组下标寻址的节点图，逻辑节点引用、节点配置值（预解析）、连线跳转表一次性解析完成。
+ * 2. 状态流转：基于 While 循环模拟有向无环图 (DAG) 的遍历，每一跳按决策类型枚举序号查表，无 Map 查找与字符串比较。
  * 3. 结果产出：直至触达没有后继连线的叶子节点，或被中间节点“接管”直接返回结果。
+ * 4. 线程安全：编译结果不可变，同一棵树的引擎实例可被所有抽奖请求共享。
  *
  * @author cyh
  * @since 2026/01/19
@@ -27,105 +33,127 @@ import java.util.Map;
 @Slf4j
 public class DecisionTreeEngine implements IDecisionTreeEngine {
 
-    /** 逻辑节点组件池：Key 为规则 Key (如 rule_stock)，Value 为具体的业务逻辑实现 */
-    private final Map<String, ILogicTreeNode> logicTreeNodeMap;
+    /** 无后继节点标记 */
+    private static final int NONE = -1;
 
-    /** 规则树视图：包含树结构、节点详情、连线规则 */
-    private final RuleTreeVO ruleTreeVO;
+    /** 规则树 ID */
+    private final String treeId;
+
+    /** 根节点下标 */
+    private final int rootIndex;
+
+    /** 节点规则 Key（下标即节点编号） */
+    private final String[] ruleKeys;
+
+    /** 节点逻辑实现（编译期解析） */
+    private final ILogicTreeNode[] logicTreeNodes;
+
+    /** 节点原始配置值 */
+    private final String[] ruleValues;
+
+    /** 节点预解析配置值 */
+    private final Object[] parsedRuleValues;
+
+    /** 连线跳转表：[节点编号][决策类型序号] -> 下一节点编号 */
+    private final int[][] nextNodeIndexes;
 
     public DecisionTreeEngine(Map<String, ILogicTreeNode> logicTreeNodeGroup, RuleTreeVO ruleTreeVO) {
-        this.logicTreeNodeMap = logicTreeNodeGroup;
-        this.ruleTreeVO = ruleTreeVO;
+        this.treeId = ruleTreeVO.getTreeId();
+        Map<String, RuleTreeNodeVO> treeNodeMap = ruleTreeVO.getTreeNodeMap();
+        int size = treeNodeMap.size();
+
+        // 1. 节点编号：为每个节点分配数组下标
+        Map<String, Integer> nodeIndexMap = new HashMap<>(size * 2);
+        RuleTreeNodeVO[] treeNodes = new RuleTreeNodeVO[size];
+        int index = 0;
+        for (Map.Entry<String, RuleTreeNodeVO> entry : treeNodeMap.entrySet()) {
+            nodeIndexMap.put(entry.getKey(), index);
+            treeNodes[index++] = entry.getValue();
+        }
+
+        // 2. 节点编译：解析逻辑实现并预解析配置值
+        this.ruleKeys = new String[size];
+        this.logicTreeNodes = new ILogicTreeNode[size];
+        this.ruleValues = new String[size];
+        this.parsedRuleValues = new Object[size];
+        this.nextNodeIndexes = new int[size][];
+        int checkTypeCount = RuleLogicCheckTypeVO.values().length;
+        for (int i = 0; i < size; i++) {
+            RuleTreeNodeVO treeNode = treeNodes[i];
+            ILogicTreeNode logicTreeNode = logicTreeNodeGroup.get(treeNode.getRuleKey());
+            if (null == logicTreeNode) {
+                log.error("[决策树编译失败] 树ID: {} 未找到规则节点实现: {}", treeId, treeNode.getRuleKey());
+                throw new AppException(ResponseCode.UN_ERROR, "规则树节点实现缺失: " + treeNode.getRuleKey());
+            }
+            ruleKeys[i] = treeNode.getRuleKey();
+            logicTreeNodes[i] = logicTreeNode;
+            ruleValues[i] = treeNode.getRuleValue();
+            parsedRuleValues[i] = logicTreeNode.parseRuleValue(treeNode.getRuleValue());
+
+            // 3. 连线编译：按决策类型序号建立跳转表，同一决策类型以首条匹配连线为准
+            int[] nextNodeIndex = new int[checkTypeCount];
+            Arrays.fill(nextNodeIndex, NONE);
+            for (RuleTreeNodeLineVO nodeLine : treeNode.getTreeNodeLineVOList()) {
+                if (RuleLimitTypeVO.EQUAL != nodeLine.getRuleLimitType()) {
+                    log.warn("[决策树配置警报] 暂不支持非 EQUAL 类型的连线判定: {}", nodeLine.getRuleLimitType());
+                    continue;
+                }
+                int ordinal = nodeLine
+                        .getRuleLimitValue()
+                        .ordinal();
+                if (NONE != nextNodeIndex[ordinal]) continue;
+                Integer toIndex = nodeIndexMap.get(nodeLine.getRuleNodeTo());
+                if (null == toIndex) {
+                    log.warn("[决策树配置警报] 树ID: {} 连线目标节点不存在: {}", treeId, nodeLine.getRuleNodeTo());
+                    continue;
+                }
+                nextNodeIndex[ordinal] = toIndex;
+            }
+            nextNodeIndexes[i] = nextNodeIndex;
+        }
+
+        // 4. 根节点定位
+        Integer root = nodeIndexMap.get(ruleTreeVO.getTreeRootRuleNode());
+        this.rootIndex = null == root ? NONE : root;
     }
 
     /**
      * 驱动决策树执行
-     * 流程：获取根节点 -> 执行节点逻辑 -> 匹配连线 -> 跳转下一节点 -> 产出最终奖品。
+     * 流程：获取根节点 -> 执行节点逻辑 -> 查表跳转下一节点 -> 产出最终奖品。
      */
     @Override
     public DefaultTreeFactory.StrategyAwardVO process(String userId, Long strategyId, Integer awardId,
                                                       Date endDateTime) {
-        // 1. 获取决策树入口：根节点 ID
-        String nextNode = ruleTreeVO.getTreeRootRuleNode();
-        Map<String, RuleTreeNodeVO> treeNodeMap = ruleTreeVO.getTreeNodeMap();
-
-        if (null == treeNodeMap || treeNodeMap.isEmpty()) {
-            log.error("[决策树异常] 规则树 ID: {} 节点配置缺失，无法执行", ruleTreeVO.getTreeId());
+        // 1. 获取决策树入口：根节点编号
+        if (NONE == rootIndex) {
+            log.error("[决策树异常] 规则树 ID: {} 节点配置缺失，无法执行", treeId);
             return null;
         }
 
-        log.info("[决策树启动] 树ID: {}, 用户: {}, 初始节点: {}", ruleTreeVO.getTreeId(), userId, nextNode);
+        log.debug("[决策树启动] 树ID: {}, 用户: {}, 初始节点: {}", treeId, userId, ruleKeys[rootIndex]);
 
         DefaultTreeFactory.StrategyAwardVO strategyAwardVO = null;
 
         // 2. 循环决策：只要存在“下一跳”节点，就持续执行
-        while (null != nextNode) {
-            // 获取当前节点的元数据配置（包含规则 Key 和规则值）
-            RuleTreeNodeVO ruleTreeNode = treeNodeMap.get(nextNode);
-            if (null == ruleTreeNode) {
-                log.warn("[决策树中断] 路径寻优失败，未找到节点: {}", nextNode);
-                break;
-            }
-
-            // 获取对应的业务逻辑组件 (如库存扣减节点、次数校验节点)
-            ILogicTreeNode logicTreeNode = logicTreeNodeMap.get(ruleTreeNode.getRuleKey());
-            String ruleValue = ruleTreeNode.getRuleValue();
-
-            // 执行节点业务逻辑
-            DefaultTreeFactory.TreeActionEntity logicEntity = logicTreeNode.logic(userId, strategyId, awardId,
-                    ruleValue, endDateTime);
+        int nodeIndex = rootIndex;
+        while (NONE != nodeIndex) {
+            // 执行节点业务逻辑（使用预解析配置值）
+            DefaultTreeFactory.TreeActionEntity logicEntity = logicTreeNodes[nodeIndex].logic(userId, strategyId,
+                    awardId, ruleValues[nodeIndex], parsedRuleValues[nodeIndex], endDateTime);
             RuleLogicCheckTypeVO checkType = logicEntity.getRuleLogicCheckType();
             strategyAwardVO = logicEntity.getStrategyAwardVO();
 
-            log.info("[决策树节点执行] 节点: {}, 规则: {}, 决策状态: {}", nextNode, ruleTreeNode.getRuleKey(), checkType.getInfo());
+            log.debug("[决策树节点执行] 节点: {}, 决策状态: {}", ruleKeys[nodeIndex], checkType.getInfo());
+            RaffleTraceHolder.stage(ruleKeys[nodeIndex], checkType.getCode());
 
-            // 3. 路径寻优：根据当前逻辑执行结果（放行/接管），匹配下一跳节点 ID
-            nextNode = nextNode(checkType.getCode(), ruleTreeNode.getTreeNodeLineVOList());
+            // 3. 路径寻优：按决策类型序号查跳转表
+            nodeIndex = nextNodeIndexes[nodeIndex][checkType.ordinal()];
         }
 
-        log.info("[决策树完结] 树ID: {}, 用户: {}, 最终判定奖品: {}", ruleTreeVO.getTreeId(), userId, (strategyAwardVO != null ?
+        log.debug("[决策树完结] 树ID: {}, 用户: {}, 最终判定奖品: {}", treeId, userId, (strategyAwardVO != null ?
                 strategyAwardVO.getAwardId() : "未中奖/被拦截"));
 
         return strategyAwardVO;
     }
 
-    /**
-     * 路径寻优核心算法
-     * 遍历当前节点的所有流出连线，匹配满足比较条件的连线目的地。
-     *
-     * @param matterValue        当前节点逻辑执行的返回值 (ALLOW / TAKE_OVER)
-     * @param treeNodeLineVOList 节点关联的连线集合
-     * @return 下一跳转节点的 ID，若无可匹配路径则返回 null（代表触达叶子节点）
-     */
-    public String nextNode(String matterValue, List<RuleTreeNodeLineVO> treeNodeLineVOList) {
-        if (null == treeNodeLineVOList || treeNodeLineVOList.isEmpty()) {
-            return null;
-        }
-
-        for (RuleTreeNodeLineVO nodeLine : treeNodeLineVOList) {
-            // 判定当前连线条件是否成立（如：返回值 == EQUAL）
-            if (decisionLogic(matterValue, nodeLine)) {
-                return nodeLine.getRuleNodeTo();
-            }
-        }
-        return null;
-    }
-
-    /**
-     * 连线过滤逻辑：支持多种比较运算符
-     * 目前核心业务主要使用 EQUAL (等于) 进行路径匹配。
-     */
-    private boolean decisionLogic(String matterValue, RuleTreeNodeLineVO nodeLine) {
-        switch (nodeLine.getRuleLimitType()) {
-            case EQUAL:
-                return matterValue.equals(nodeLine.getRuleLimitValue().getCode());
-            case GT:
-            case LT:
-            case GE:
-            case LE:
-            default:
-                log.warn("[决策树配置警报] 暂不支持非 EQUAL 类型的连线判定: {}", nodeLine.getRuleLimitType());
-                return false;
-        }
-    }
-}
\ No newline at end of file
+}
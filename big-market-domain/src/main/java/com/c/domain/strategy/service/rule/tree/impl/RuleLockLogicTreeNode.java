@@ -1,7 +1,9 @@
 package com.c.domain.strategy.service.rule.tree.impl;
 
+import com.c.domain.strategy.model.vo.RaffleContextVO;
 import com.c.domain.strategy.model.vo.RuleLogicCheckTypeVO;
 import com.c.domain.strategy.repository.IStrategyRepository;
+import com.c.domain.strategy.service.raffle.RaffleContextHolder;
 import com.c.domain.strategy.service.rule.tree.ILogicTreeNode;
 import com.c.domain.strategy.service.rule.tree.factory.DefaultTreeFactory;
 import lombok.extern.slf4j.Slf4j;
@@ -42,28 +44,50 @@ public class RuleLockLogicTreeNode implements ILogicTreeNode {
     @Override
     public DefaultTreeFactory.TreeActionEntity logic(String userId, Long strategyId, Integer awardId,
                                                      String ruleValue, Date endDateTime) {
-        log.info("规则树-规则锁节点开始校验 userId:{} strategyId:{} awardId:{} ruleValue:{}", userId, strategyId, awardId,
-                ruleValue);
+        // 解析阈值后委托预解析版本执行，转换失败则视为配置非法
+        return logic(userId, strategyId, awardId, ruleValue, parseRuleValue(ruleValue), endDateTime);
+    }
 
-        // 1. 解析阈值：将配置的规则值转换为数值，转换失败则视为配置非法
-        long raffleCountThreshold;
+    /**
+     * 预解析次数锁阈值（规则树编译阶段执行一次）
+     *
+     * @param ruleValue 规则阈值字符串
+     * @return 阈值数值
+     * @throws IllegalArgumentException 当 ruleValue 配置非数字时抛出
+     */
+    @Override
+    public Object parseRuleValue(String ruleValue) {
         try {
-            raffleCountThreshold = Long.parseLong(ruleValue);
+            return Long.parseLong(ruleValue);
         } catch (NumberFormatException e) {
             log.error("规则树-规则锁配置异常，解析 ruleValue 失败: {}", ruleValue);
             throw new IllegalArgumentException("规则锁节点配置非法，预期为数字类型: " + ruleValue);
         }
+    }
+
+    /**
+     * 使用预解析阈值执行次数锁判定
+     */
+    @Override
+    public DefaultTreeFactory.TreeActionEntity logic(String userId, Long strategyId, Integer awardId,
+                                                     String ruleValue, Object parsedRuleValue, Date endDateTime) {
+        long raffleCountThreshold = (Long) parsedRuleValue;
+        log.debug("规则树-规则锁节点开始校验 userId:{} strategyId:{} awardId:{} ruleValue:{}", userId, strategyId, awardId,
+                raffleCountThreshold);
 
-        // 2. 数据采集：查询用户在当前策略下的累计抽奖次数（通常为当日次数）
-        Integer userRaffleCount = strategyRepository.queryTodayUserRaffleCount(userId, strategyId);
+        // 1. 数据采集：用户在当前策略下的当日抽奖次数，优先读取抽奖上下文预取值
+        RaffleContextVO raffleContext = RaffleContextHolder.current(userId, strategyId);
+        Integer userRaffleCount = null != raffleContext && null != raffleContext.getTodayRaffleCount() ?
+                raffleContext.getTodayRaffleCount() :
+                strategyRepository.queryTodayUserRaffleCount(userId, strategyId);
 
-        // 3. 判定逻辑：满足阈值则放行，否则接管流程
+        // 2. 判定逻辑：满足阈值则放行，否则接管流程
         if (userRaffleCount >= raffleCountThreshold) {
-            log.info("规则树-规则锁校验通过: 用户次数 {} 已达标 {}", userRaffleCount, raffleCountThreshold);
+            log.debug("规则树-规则锁校验通过: 用户次数 {} 已达标 {}", userRaffleCount, raffleCountThreshold);
             return DefaultTreeFactory.TreeActionEntity.builder().ruleLogicCheckType(RuleLogicCheckTypeVO.ALLOW).build();
         }
 
-        log.info("规则树-规则锁校验拦截: 用户次数 {} 未达标 {}", userRaffleCount, raffleCountThreshold);
+        log.debug("规则树-规则锁校验拦截: 用户次数 {} 未达标 {}", userRaffleCount, raffleCountThreshold);
         return DefaultTreeFactory.TreeActionEntity.builder().ruleLogicCheckType(RuleLogicCheckTypeVO.TAKE_OVER).build();
     }
 }
\ No newline at end of file
@@ -44,25 +44,50 @@ public class RuleLuckAwardLogicTreeNode implements ILogicTreeNode {
     public DefaultTreeFactory.TreeActionEntity logic(String userId, Long strategyId, Integer awardId,
                                                      String ruleValue, Date endDateTime) {
         // 日志记录节点执行入参，便于问题排查和链路追踪
-        log.info("规则树-幸运奖节点执行开始: userId={}, strategyId={}, currentAwardId={}, ruleValue={}", userId,
+        log.debug("规则树-幸运奖节点执行开始: userId={}, strategyId={}, currentAwardId={}, ruleValue={}", userId,
                 strategyId, awardId, ruleValue);
 
+        return logic(userId, strategyId, awardId, ruleValue, parseRuleValue(ruleValue), endDateTime);
+    }
+
+    /**
+     * 预解析幸运奖配置（规则树编译阶段执行一次）：格式为「奖品ID[:奖品规则值]」
+     *
+     * @param ruleValue 规则配置值
+     * @return 幸运奖品模板
+     * @throws RuntimeException 当ruleValue解析不出有效奖品ID时抛出
+     */
+    @Override
+    public Object parseRuleValue(String ruleValue) {
         // 解析规则值：按系统常量的冒号分隔，拆分出奖品ID和扩展规则值
         String[] split = ruleValue.split(Constants.COLON);
         // 规则值解析校验：无有效内容则抛出异常并记录告警日志
         if (split.length == 0) {
-            log.error("规则树-幸运奖节点配置异常：兜底奖品未配置，userId={}, strategyId={}, currentAwardId={}, " + "ruleValue" + "={}", userId, strategyId, awardId, ruleValue);
+            log.error("规则树-幸运奖节点配置异常：兜底奖品未配置，ruleValue={}", ruleValue);
             throw new RuntimeException("幸运奖节点规则值配置异常，未解析到有效奖品ID：" + ruleValue);
         }
 
-        // 覆盖原奖品ID为幸运奖配置的奖品ID
-        Integer luckAwardId = Integer.parseInt(split[0]);
-        // 解析可选的奖品扩展规则值，无则赋值为空字符串
-        String luckAwardRuleValue = split.length > 1 ? split[1] : "";
+        return DefaultTreeFactory.StrategyAwardVO
+                .builder()
+                .awardId(Integer.parseInt(split[0]))
+                // 解析可选的奖品扩展规则值，无则赋值为空字符串
+                .awardRuleValue(split.length > 1 ? split[1] : "")
+                .build();
+    }
+
+    /**
+     * 使用预解析的幸运奖品模板执行判定（每次返回新对象，避免调用方修改共享模板）
+     */
+    @Override
+    public DefaultTreeFactory.TreeActionEntity logic(String userId, Long strategyId, Integer awardId,
+                                                     String ruleValue, Object parsedRuleValue, Date endDateTime) {
+        DefaultTreeFactory.StrategyAwardVO luckAward = (DefaultTreeFactory.StrategyAwardVO) parsedRuleValue;
+        Integer luckAwardId = luckAward.getAwardId();
+        String luckAwardRuleValue = luckAward.getAwardRuleValue();
 
-        // 日志记录解析后的幸运奖品信息，便于核对配置是否生效
-        log.info("规则树-幸运奖节点执行完成：已解析幸运奖品信息，userId={}, strategyId={}, luckAwardId={}, " + "luckAwardRuleValue"
-                + "={}", userId, strategyId, luckAwardId, luckAwardRuleValue);
+        // 日志记录幸运奖品信息，便于核对配置是否生效
+        log.debug("规则树-幸运奖节点执行完成：userId={}, strategyId={}, currentAwardId={}, luckAwardId={}, " +
+                "luckAwardRuleValue={}", userId, strategyId, awardId, luckAwardId, luckAwardRuleValue);
 
         // 构建决策结果：接管规则树流程，并返回最终的幸运奖品配置
         return DefaultTreeFactory.TreeActionEntity.builder()
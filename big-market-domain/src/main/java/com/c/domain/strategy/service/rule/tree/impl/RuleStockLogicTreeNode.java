@@ -41,13 +41,13 @@ public class RuleStockLogicTreeNode implements ILogicTreeNode {
     @Override
     public DefaultTreeFactory.TreeActionEntity logic(String userId, Long strategyId, Integer awardId,
                                                      String ruleValue, Date endDateTime) {
-        log.info("规则树-库存校验节点开始执行: userId:{}, strategyId:{}, awardId:{}", userId, strategyId, awardId);
+        log.debug("规则树-库存校验节点开始执行: userId:{}, strategyId:{}, awardId:{}", userId, strategyId, awardId);
 
-        // 1. 调用分发服务执行库存扣减（通常基于 Redis Lua 脚本实现原子性）
+        // 1. 调用分发服务执行库存扣减（单次 Lua 脚本原子完成 库存为正时扣减 + 序号锁占位，一次网络往返）
         Boolean status = strategyDispatch.subtractAwardStock(strategyId, awardId,endDateTime);
 
         if (status) {
-            log.info("规则树-库存校验成功: userId:{}, strategyId:{}, awardId:{}", userId, strategyId, awardId);
+            log.debug("规则树-库存校验成功: userId:{}, strategyId:{}, awardId:{}", userId, strategyId, awardId);
 
             // 2. 扣减成功后，向消息队列或延迟任务发送库存消耗通知，用于异步更新数据库库存记录
             repository.awardStockConsumeSendQueue(StrategyAwardStockKeyVO.builder().strategyId(strategyId)
@@ -0,0 +1,94 @@
+package com.c.domain.strategy.service.trace;
+
+import com.c.domain.strategy.model.entity.RaffleTraceEntity;
+import com.c.domain.strategy.model.vo.RaffleTraceStageVO;
+
+import java.util.ArrayList;
+
+/**
+ * 抽奖追踪线程绑定
+ * 1. 开启：抽奖入口开启追踪并绑定至当前线程，嵌套开启复用外层追踪。
+ * 2. 记录：责任链、决策树等各阶段以静态方法记录 阶段 + 决策 + 距上一阶段耗时；未开启追踪时为空操作。
+ * 3. 结束：最外层入口结束时解绑并返回追踪结果，交由 {@link RaffleTraceRecorder} 入环形缓冲区与采样输出。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+public final class RaffleTraceHolder {
+
+    private static final ThreadLocal<Trace> TRACE = new ThreadLocal<>();
+
+    private RaffleTraceHolder() {
+    }
+
+    /**
+     * 开启追踪
+     *
+     * @param entry  入口标识
+     * @param userId 用户ID
+     * @return true-本次开启（需负责结束） false-复用外层追踪
+     */
+    public static boolean begin(String entry, String userId) {
+        if (null != TRACE.get()) return false;
+        TRACE.set(new Trace(entry, userId));
+        return true;
+    }
+
+    /**
+     * 记录阶段
+     *
+     * @param stage    阶段标识
+     * @param decision 阶段决策
+     */
+    public static void stage(String stage, Object decision) {
+        Trace trace = TRACE.get();
+        if (null == trace) return;
+        long now = System.nanoTime();
+        trace.entity
+                .getStages()
+                .add(RaffleTraceStageVO
+                        .builder()
+                        .stage(stage)
+                        .decision(String.valueOf(decision))
+                        .costMicros((now - trace.lastNanos) / 1000)
+                        .build());
+        trace.lastNanos = now;
+    }
+
+    /**
+     * 结束追踪并解绑
+     *
+     * @param error 是否异常结束
+     * @return 追踪结果，未开启追踪返回null
+     */
+    public static RaffleTraceEntity end(boolean error) {
+        Trace trace = TRACE.get();
+        if (null == trace) return null;
+        TRACE.remove();
+        trace.entity.setCostMicros((System.nanoTime() - trace.startNanos) / 1000);
+        trace.entity.setError(error);
+        return trace.entity;
+    }
+
+    private static final class Trace {
+
+        private final RaffleTraceEntity entity;
+
+        private final long startNanos;
+
+        private long lastNanos;
+
+        private Trace(String entry, String userId) {
+            this.entity = RaffleTraceEntity
+                    .builder()
+                    .entry(entry)
+                    .userId(userId)
+                    .startTime(System.currentTimeMillis())
+                    .stages(new ArrayList<>(16))
+                    .build();
+            this.startNanos = System.nanoTime();
+            this.lastNanos = startNanos;
+        }
+    }
+
+}
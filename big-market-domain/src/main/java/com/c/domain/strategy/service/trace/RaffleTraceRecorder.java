@@ -0,0 +1,94 @@
+package com.c.domain.strategy.service.trace;
+
+import com.c.domain.strategy.model.entity.RaffleTraceEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 抽奖追踪记录器
+ * 1. 环形缓冲：全部追踪写入固定容量的无锁环形缓冲区，新记录覆盖最旧记录，供管理端查询最近追踪。
+ * 2. 采样输出：仅按采样率命中或总耗时超过慢阈值的追踪输出日志（独立 raffle-trace 异步 Appender），替代逐步骤 INFO 日志。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Component
+public class RaffleTraceRecorder {
+
+    /** 追踪日志（logback 中绑定独立异步 Appender） */
+    private static final Logger TRACE_LOG = LoggerFactory.getLogger("raffle-trace");
+
+    /** 环形缓冲区容量（向上取整为 2 的幂） */
+    @Value("${strategy.raffle.trace.capacity:1024}")
+    private int capacity;
+
+    /** 采样率：每 N 次抽奖输出 1 条追踪日志，0 表示不采样 */
+    @Value("${strategy.raffle.trace.sample-rate:100}")
+    private int sampleRate;
+
+    /** 慢抽奖阈值（毫秒），超过即输出追踪日志 */
+    @Value("${strategy.raffle.trace.slow-threshold-millis:200}")
+    private long slowThresholdMillis;
+
+    private AtomicReferenceArray<RaffleTraceEntity> ringBuffer;
+
+    private int mask;
+
+    private final AtomicLong cursor = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.ringBuffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * 记录一次完整追踪
+     *
+     * @param trace 追踪结果，null 时忽略
+     */
+    public void record(RaffleTraceEntity trace) {
+        if (null == trace) return;
+        ringBuffer.set((int) (cursor.getAndIncrement() & mask), trace);
+
+        boolean slow = trace.getCostMicros() >= slowThresholdMillis * 1000;
+        boolean sampled = sampleRate > 0 && ThreadLocalRandom
+                .current()
+                .nextInt(sampleRate) == 0;
+        if (slow) {
+            TRACE_LOG.warn("慢抽奖追踪 {}", trace);
+        } else if (sampled || trace.isError()) {
+            TRACE_LOG.info("抽奖追踪 {}", trace);
+        }
+    }
+
+    /**
+     * 查询最近的追踪（由新到旧）
+     *
+     * @param limit 最大条数
+     * @param slowOnly 是否仅返回慢抽奖
+     * @return 追踪列表
+     */
+    public List<RaffleTraceEntity> recent(int limit, boolean slowOnly) {
+        List<RaffleTraceEntity> traces = new ArrayList<>(Math.min(limit, ringBuffer.length()));
+        long end = cursor.get();
+        for (long i = end - 1; i >= 0 && i >= end - ringBuffer.length() && traces.size() < limit; i--) {
+            RaffleTraceEntity trace = ringBuffer.get((int) (i & mask));
+            if (null == trace) continue;
+            if (slowOnly && trace.getCostMicros() < slowThresholdMillis * 1000) continue;
+            traces.add(trace);
+        }
+        return traces;
+    }
+
+}
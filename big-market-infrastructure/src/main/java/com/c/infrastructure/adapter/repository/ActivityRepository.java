@@ -12,6 +12,8 @@ import com.c.infrastructure.dao.*;
 import com.c.infrastructure.dao.po.*;
 import com.c.infrastructure.event.EventPublisher;
 import com.c.infrastructure.redis.IRedisService;
+import com.c.infrastructure.stock.SegmentedStockCounter;
+import com.c.types.annotations.RequestMemoized;
 import com.c.types.common.Constants;
 import com.c.types.enums.ResponseCode;
 import com.c.types.exception.AppException;
@@ -23,7 +25,9 @@ import org.springframework.transaction.support.TransactionTemplate;
 import javax.annotation.Resource;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -36,6 +40,9 @@ import java.util.stream.Collectors;
 @Repository
 public class ActivityRepository implements IActivityRepository {
 
+    // 用户抽奖次数计数器墓碑秒数（须覆盖读取方从查库到重建计数器的窗口）
+    private static final long USER_RAFFLE_COUNT_TOMBSTONE_SECONDS = 10;
+
     @Resource
     private IRedisService redisService;
     @Resource
@@ -62,6 +69,8 @@ public class ActivityRepository implements IActivityRepository {
     private ActivitySkuStockZeroMessageEvent activitySkuStockZeroMessageEvent;
     @Resource
     private EventPublisher eventPublisher;
+    @Resource
+    private SegmentedStockCounter stockCounter;
 
     @Override
     public void doSaveNoPayOrder(CreateQuotaOrderAggregate aggregate) {
@@ -252,6 +261,9 @@ public class ActivityRepository implements IActivityRepository {
         });
     }
 
+    /**
+     * 查询活动 SKU（含实时库存，库存在请求内会被扣减，不做请求级记忆化）
+     */
     @Override
     public ActivitySkuEntity queryActivitySku(Long sku) {
         // 1. 优先查询数据库
@@ -262,20 +274,14 @@ public class ActivityRepository implements IActivityRepository {
 
         String cacheKey = Constants.RedisKey.ACTIVITY_SKU_STOCK_COUNT_KEY + sku;
 
-        // 2. 获取实时库存
-        // 注意：如果 getValue 内部做了反序列化，这里可能也会报错，需确保 redisService 兼容
-        Integer cacheSkuStock = redisService.getValue(cacheKey);
+        // 2. 获取实时库存（计数器以纯数字存储，分段库存汇总全部分段）
+        Long cacheStock = stockCounter.queryStock(cacheKey);
+        Integer cacheSkuStock = null == cacheStock ? null : cacheStock.intValue();
 
-        // 3. 【核心修复】缓存补偿逻辑
+        // 3. 缓存补偿：按数据库剩余库存装配计数器（达到阈值时分段）
         if (null == cacheSkuStock) {
             cacheSkuStock = raffleActivitySKU.getStockCountSurplus();
-
-            /** * 💡 注意点：
-             * 不要直接调用通用的 setValue(key, Object)，因为它会走 JSON 序列化。
-             * 应该调用专门设置原子长整型的方法，确保 Redis 里存的是纯数字（Plain Text）。
-             * 如果你的 redisService 没封装，可以考虑直接用 setAtomicLong 之类的方法。
-             */
-            redisService.setAtomicLong(cacheKey, cacheSkuStock);
+            cacheActivitySkuStockCount(cacheKey, cacheSkuStock);
         }
 
         return ActivitySkuEntity
@@ -290,6 +296,7 @@ public class ActivityRepository implements IActivityRepository {
     }
 
     @Override
+    @RequestMemoized
     public ActivityEntity queryRaffleActivityByActivityId(Long activityId) {
         String cacheKey = Constants.RedisKey.ACTIVITY_KEY + activityId;
         ActivityEntity activityEntity = redisService.getValue(cacheKey);
@@ -314,6 +321,7 @@ public class ActivityRepository implements IActivityRepository {
     }
 
     @Override
+    @RequestMemoized
     public ActivityCountEntity queryRaffleActivityCountByActivityCountId(Long activityCountId) {
         String cacheKey = Constants.RedisKey.ACTIVITY_COUNT_KEY + activityCountId;
         ActivityCountEntity activityCountEntity = redisService.getValue(cacheKey);
@@ -408,30 +416,54 @@ public class ActivityRepository implements IActivityRepository {
                 throw e;
             }
         });
+
+        // 5. 事务提交后自增用户抽奖次数计数器（供权重/次数锁规则单次读取）
+        incrUserRaffleCount(userId, orderEntity.getStrategyId(), dayEntity.getDay());
     }
 
+    /**
+     * 自增用户累计/当日抽奖次数计数器
+     * 仅计数器已存在时自增：缺失的计数器由读取方从数据库对账重建，避免从 0 起算；
+     * 计数器缺失时写入墓碑：读取方可能在本次事务提交前查库，墓碑期内放弃重建，避免以少计一次的读数写回计数器；
+     * 自增失败仅记录日志，计数器过期后由读取方对账收敛。
+     */
+    private void incrUserRaffleCount(String userId, Long strategyId, String day) {
+        String totalCountKey = Constants.RedisKey.USER_RAFFLE_TOTAL_COUNT_KEY + strategyId + Constants.UNDERLINE + userId;
+        String dayCountKey = Constants.RedisKey.USER_RAFFLE_DAY_COUNT_KEY + strategyId + Constants.UNDERLINE + userId +
+                Constants.UNDERLINE + day;
+        try {
+            redisService.incrIfExists(totalCountKey,
+                    Constants.RedisKey.USER_RAFFLE_COUNT_TOMBSTONE_KEY + "{" + totalCountKey + "}",
+                    USER_RAFFLE_COUNT_TOMBSTONE_SECONDS, TimeUnit.SECONDS);
+            redisService.incrIfExists(dayCountKey,
+                    Constants.RedisKey.USER_RAFFLE_COUNT_TOMBSTONE_KEY + "{" + dayCountKey + "}",
+                    USER_RAFFLE_COUNT_TOMBSTONE_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("用户抽奖次数计数器自增失败 userId:{} strategyId:{} day:{}", userId, strategyId, day, e);
+        }
+    }
+
+    /**
+     * SKU 库存扣减：单 Key 与分段库存统一经扣减脚本完成 库存为正时扣减 + 序号账本占位，整体售罄时发布库存归零事件
+     * 计数器缺失时脚本直接返回，不会像 decr 一样凭空创建负值计数器而误判售罄。
+     */
     @Override
     public boolean subtractionActivitySkuStock(Long sku, String cacheKey, Date endDateTime) {
-        long surplus = redisService.decr(cacheKey);
-        if (surplus < 0) {
-            redisService.setAtomicLong(cacheKey, 0);
+        long expireSeconds = TimeUnit.MILLISECONDS.toSeconds(endDateTime.getTime() - System.currentTimeMillis()) +
+                TimeUnit.DAYS.toSeconds(1);
+        long code = stockCounter.subtract(cacheKey, expireSeconds);
+        if (SegmentedStockCounter.LOCK_FAILED == code) {
+            log.warn("SKU: {} 库存序号占位锁获取失败", sku);
             return false;
         }
+        if (code < 0) return false;
 
-        if (surplus == 0) {
+        if (code == 0) {
             eventPublisher.publish(activitySkuStockZeroMessageEvent.exchange(),
                     activitySkuStockZeroMessageEvent.routingKey(),
                     activitySkuStockZeroMessageEvent.buildEventMessage(sku));
         }
-
-        // 占位锁逻辑：确保并发下序号唯一抢占
-        String lockKey = cacheKey + Constants.UNDERLINE + surplus;
-        long expireMillis = endDateTime.getTime() - System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1);
-        Boolean lock = redisService.setNx(lockKey, expireMillis, TimeUnit.MILLISECONDS);
-        if (!lock) {
-            log.warn("SKU: {} 序号 {} 占位锁获取失败", sku, surplus);
-        }
-        return lock;
+        return true;
     }
 
     @Override
@@ -518,6 +550,7 @@ public class ActivityRepository implements IActivityRepository {
     }
 
     @Override
+    @RequestMemoized
     public List<ActivitySkuEntity> queryActivitySkuListByActivityId(Long activityId) {
         List<RaffleActivitySku> list = raffleActivitySkuDao.queryActivitySkuListByActivityId(activityId);
         return list
@@ -533,6 +566,11 @@ public class ActivityRepository implements IActivityRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<Long> queryOpenActivityIdList() {
+        return raffleActivityDao.queryOpenActivityIdList(ActivityStateVO.OPEN.getCode());
+    }
+
     @Override
     public Integer queryRaffleActivityAccountDayPartakeCount(Long activityId, String userId) {
         RaffleActivityAccountDay req = RaffleActivityAccountDay
@@ -737,7 +775,17 @@ public class ActivityRepository implements IActivityRepository {
 
     @Override
     public void cacheActivitySkuStockCount(String key, Integer count) {
+        if (stockCounter.cacheStock(key, count)) return;
         if (redisService.isExists(key)) return;
         redisService.setAtomicLong(key, count);
     }
+
+    @Override
+    public void cacheActivitySkuStockCount(Map<String, Integer> cacheKeyStockCountMap) {
+        Map<String, Long> keyValues = new HashMap<>((int) (cacheKeyStockCountMap.size() / 0.75f) + 1);
+        cacheKeyStockCountMap.forEach((cacheKey, stockCount) -> {
+            if (!stockCounter.cacheStock(cacheKey, stockCount)) keyValues.put(cacheKey, stockCount.longValue());
+        });
+        redisService.setAtomicLongIfAbsent(keyValues);
+    }
 }
\ No newline at end of file
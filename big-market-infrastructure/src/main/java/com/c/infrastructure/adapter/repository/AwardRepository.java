@@ -14,6 +14,7 @@ import com.c.infrastructure.dao.po.Task;
 import com.c.infrastructure.dao.po.UserAwardRecord;
 import com.c.infrastructure.dao.po.UserCreditAccount;
 import com.c.infrastructure.dao.po.UserRaffleOrder;
+import com.c.types.annotations.RequestMemoized;
 import com.c.types.enums.ResponseCode;
 import com.c.types.exception.AppException;
 import lombok.extern.slf4j.Slf4j;
@@ -149,6 +150,7 @@ public class AwardRepository implements IAwardRepository {
      * @return 配置字符串（通常为 JSON），用于决定发奖的具体动作（如积分额度、实物邮寄属性等）
      */
     @Override
+    @RequestMemoized
     public String queryAwardConfig(Integer awardId) {
         return awardDao.queryAwardConfigByAwardId(awardId);
     }
@@ -222,6 +224,7 @@ public class AwardRepository implements IAwardRepository {
      * @return 奖品业务 Key（如："coupon_v1", "credit_score"），用于逻辑判断或调用三方接口
      */
     @Override
+    @RequestMemoized
     public String queryAwardKey(Integer awardId) {
         return awardDao.queryAwardKeyByAwardId(awardId);
     }
@@ -9,16 +9,23 @@ import com.c.domain.strategy.service.rule.chain.factory.DefaultChainFactory;
 import com.c.infrastructure.dao.*;
 import com.c.infrastructure.dao.po.*;
 import com.c.infrastructure.redis.IRedisService;
+import com.c.infrastructure.snapshot.StrategyRateTableSnapshotStore;
+import com.c.infrastructure.stock.SegmentedStockCounter;
+import com.c.types.annotations.RequestMemoized;
 import com.c.types.common.Constants;
 import com.c.types.enums.ResponseCode;
 import com.c.types.exception.AppException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.redisson.api.RBatch;
 import org.redisson.api.RBlockingQueue;
+import org.redisson.api.RBucket;
 import org.redisson.api.RDelayedQueue;
+import org.redisson.client.codec.StringCodec;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.Resource;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -62,6 +69,22 @@ public class StrategyRepository implements IStrategyRepository {
     @Resource
     private IRaffleActivityAccountDayDao raffleActivityAccountDayDao;
 
+    // 概率表本地快照（内存映射文件）
+    @Resource
+    private StrategyRateTableSnapshotStore rateTableSnapshotStore;
+
+    @Resource
+    private SegmentedStockCounter stockCounter;
+
+    // 整数表紧凑编码（O1 概率表、牌堆）：每个槽位占用的字节数（大端 int）
+    private static final int INT_TABLE_SLOT_BYTES = Integer.BYTES;
+
+    // 蓝绿装配：旧版本概率表在切换后保留的秒数（覆盖在途请求与本地副本失效窗口）
+    private static final long RATE_TABLE_RETIRE_DELAY_SECONDS = 300;
+
+    // 用户抽奖次数计数器过期小时数（即与数据库对账的周期）
+    private static final long USER_RAFFLE_COUNT_EXPIRE_HOURS = 24;
+
     // ========== 策略基础查询 ==========
 
     /**
@@ -71,6 +94,7 @@ public class StrategyRepository implements IStrategyRepository {
      * @return 策略实体，无数据返回null
      */
     @Override
+    @RequestMemoized
     public StrategyEntity queryStrategyEntityByStrategyId(Long strategyId) {
         String cacheKey = Constants.RedisKey.STRATEGY_KEY + strategyId;
         StrategyEntity strategyEntity = redisService.getValue(cacheKey);
@@ -103,6 +127,7 @@ public class StrategyRepository implements IStrategyRepository {
      * @return 策略奖品实体列表，无数据返回空列表
      */
     @Override
+    @RequestMemoized
     public List<StrategyAwardEntity> queryStrategyAwardList(Long strategyId) {
         String cacheKey = Constants.RedisKey.STRATEGY_AWARD_LIST_KEY + strategyId;
 
@@ -149,6 +174,7 @@ public class StrategyRepository implements IStrategyRepository {
      * @return 奖品实体，无数据返回null
      */
     @Override
+    @RequestMemoized
     public StrategyAwardEntity queryStrategyAwardEntity(Long strategyId, Integer awardId) {
         String cacheKey = Constants.RedisKey.STRATEGY_AWARD_KEY + strategyId + Constants.UNDERLINE + awardId;
         StrategyAwardEntity strategyAwardEntity = redisService.getValue(cacheKey);
@@ -191,6 +217,7 @@ public class StrategyRepository implements IStrategyRepository {
      * @return 策略ID，无关联返回null
      */
     @Override
+    @RequestMemoized
     public Long queryStrategyIdByActivityId(Long activityId) {
         return raffleActivityDao.queryStrategyIdByActivityId(activityId);
     }
@@ -206,6 +233,7 @@ public class StrategyRepository implements IStrategyRepository {
      * @return 规则配置内容，无配置返回null
      */
     @Override
+    @RequestMemoized
     public String queryStrategyRuleValue(Long strategyId, Integer awardId, String ruleModel) {
         StrategyRule queryCondition = StrategyRule
                 .builder()
@@ -224,6 +252,7 @@ public class StrategyRepository implements IStrategyRepository {
      * @return 规则配置内容，无配置返回null
      */
     @Override
+    @RequestMemoized
     public String queryStrategyRuleValue(Long strategyId, String ruleModel) {
         return queryStrategyRuleValue(strategyId, null, ruleModel); // 复用重载方法，减少冗余
     }
@@ -236,6 +265,7 @@ public class StrategyRepository implements IStrategyRepository {
      * @return 策略规则实体，无数据返回null
      */
     @Override
+    @RequestMemoized
     public StrategyRuleEntity queryStrategyRule(Long strategyId, String ruleModel) {
         StrategyRule queryCondition = StrategyRule
                 .builder()
@@ -267,6 +297,7 @@ public class StrategyRepository implements IStrategyRepository {
      * @return 规则决策树VO，数据不完整返回null
      */
     @Override
+    @RequestMemoized
     public RuleTreeVO queryRuleTreeVOByTreeId(String treeId) {
         String cacheKey = Constants.RedisKey.RULE_TREE_VO_KEY + treeId;
         RuleTreeVO ruleTreeVO = redisService.getValue(cacheKey);
@@ -332,32 +363,6 @@ public class StrategyRepository implements IStrategyRepository {
         return ruleTreeVO;
     }
 
-    /**
-     * 查询奖品关联的规则模型
-     *
-     * @param strategyId 策略ID
-     * @param awardId    奖品ID
-     * @return 奖品规则模型VO，无绑定返回null
-     */
-    @Override
-    public StrategyAwardRuleModelVO queryStrategyAwardRuleModel(Long strategyId, Integer awardId) {
-        StrategyAward queryCondition = StrategyAward
-                .builder()
-                .strategyId(strategyId)
-                .awardId(awardId)
-                .build();
-
-        String ruleModel = strategyAwardDao.queryStrategyAwardRuleModel(queryCondition);
-        if (StringUtils.isBlank(ruleModel)) {
-            return null; // 无规则模型返回null
-        }
-
-        return StrategyAwardRuleModelVO
-                .builder()
-                .ruleModels(ruleModel)
-                .build();
-    }
-
     /**
      * 查询奖品规则锁定次数要求
      *
@@ -464,72 +469,103 @@ public class StrategyRepository implements IStrategyRepository {
         return ruleWeightVOS;
     }
 
+    // ========== 抽奖概率相关 ==========
+
     /**
-     * 缓存策略装配算法名称
+     * 存储抽奖概率查找映射表（O(1)查询）
+     * 紧凑编码：每个槽位为定长大端整数，整表为单个 Redis String，单次 SET 完成写入
      *
-     * @param key      缓存键前缀
-     * @param beanName 算法Bean名称
+     * @param key   策略装配唯一标识
+     * @param table 随机索引-奖品ID查找表
      */
     @Override
-    public void cacheStrategyArmoryAlgorithm(String key, String beanName) {
-        String cacheKey = Constants.RedisKey.STRATEGY_ARMORY_ALGORITHM_KEY + key;
-        redisService.setValue(cacheKey, beanName);
+    public void storeStrategyAwardSearchRateTable(String key, int[] table) {
+        // 1. 存储概率分母
+        String rateRangeCacheKey = Constants.RedisKey.STRATEGY_RATE_RANGE_KEY + key;
+        redisService.setValue(rateRangeCacheKey, table.length);
+
+        // 2. 编码为定长字节序列，整表单次 SET 覆盖写入
+        String tableKey = Constants.RedisKey.STRATEGY_RATE_TABLE_O1_KEY + key;
+        int bytes = storeIntTable(tableKey, table);
+
+        log.info("O1 概率表已持久化至 Redis Key:{} 规模:{} 字节:{}", tableKey, table.length, bytes);
     }
 
     /**
-     * 从缓存查询策略装配算法名称
+     * 存储预洗牌牌堆（Deck算法），编码同 O(1) 查找表
      *
-     * @param key 缓存键前缀
-     * @return 算法Bean名称，无数据返回null
+     * @param key  策略装配唯一标识
+     * @param deck 已洗牌的奖品ID牌堆
+     * @param seed 轮次置换种子
      */
     @Override
-    public String queryStrategyArmoryAlgorithmFromCache(String key) {
-        String cacheKey = Constants.RedisKey.STRATEGY_ARMORY_ALGORITHM_KEY + key;
-        if (!redisService.isExists(cacheKey)) return null; // 缓存不存在直接返回null
-        return redisService.getValue(cacheKey);
-    }
+    public void storeStrategyAwardDeckTable(String key, int[] deck, long seed) {
+        String rateRangeCacheKey = Constants.RedisKey.STRATEGY_RATE_RANGE_KEY + key;
+        redisService.setValue(rateRangeCacheKey, deck.length);
+        redisService.setValue(Constants.RedisKey.STRATEGY_RATE_TABLE_DECK_SEED_KEY + key, seed);
 
-    // ========== 抽奖概率相关 ==========
+        String deckKey = Constants.RedisKey.STRATEGY_RATE_TABLE_DECK_KEY + key;
+        int bytes = storeIntTable(deckKey, deck);
+
+        log.info("牌堆已持久化至 Redis Key:{} 张数:{} 字节:{}", deckKey, deck.length, bytes);
+    }
 
     /**
-     * 存储抽奖概率查找映射表（O(1)查询）
+     * 存储区间概率查找表（O(LogN)算法）
      *
      * @param key        策略装配唯一标识
-     * @param rateRange  概率分母
-     * @param shuffleMap 随机数-奖品ID映射
+     * @param rateRange  总概率量程
+     * @param rangeTable 区间上限/奖品ID数组对
      */
     @Override
-    public void storeStrategyAwardSearchRateTable(String key, Integer rateRange, Map<Integer, Integer> shuffleMap) {
-        // 1. 存储概率分母
+    public void storeStrategyAwardRangeTable(String key, Integer rateRange, StrategyAwardRangeTableVO rangeTable) {
+        // 存储概率分母
         String rateRangeCacheKey = Constants.RedisKey.STRATEGY_RATE_RANGE_KEY + key;
         redisService.setValue(rateRangeCacheKey, rateRange);
 
-        // 2. 存储O(1)概率映射表，先清旧数据防污染
-        String tableKey = Constants.RedisKey.STRATEGY_RATE_TABLE_O1_KEY + key;
-        Map<Integer, Integer> cacheMap = redisService.getMap(tableKey);
-        cacheMap.clear();
-        cacheMap.putAll(shuffleMap);
+        // 存储区间数组对，读取时无需重建有序结构
+        String rateTableCacheKey = Constants.RedisKey.STRATEGY_RATE_TABLE_OLN_KEY + key;
+        redisService.setValue(rateTableCacheKey, rangeTable);
+
+        log.info("OLogN 概率表已持久化至 Redis Key:{} 规模:{}", rateTableCacheKey, rangeTable.getBounds().length);
     }
 
     /**
-     * 存储区间概率查找表（O(LogN)算法）
+     * 存储别名概率表（Alias算法）
      *
-     * @param key       策略装配唯一标识
-     * @param rateRange 总概率量程
-     * @param rangeMap  区间上限-奖品ID映射
+     * @param key        策略装配唯一标识
+     * @param rateRange  单列概率量程
+     * @param aliasTable 别名表
      */
     @Override
-    public void storeStrategyAwardSearchRateTable(String key, Integer rateRange,
-                                                  NavigableMap<Integer, Integer> rangeMap) {
+    public void storeStrategyAwardAliasTable(String key, Integer rateRange, StrategyAwardAliasTableVO aliasTable) {
         // 存储概率分母
         String rateRangeCacheKey = Constants.RedisKey.STRATEGY_RATE_RANGE_KEY + key;
         redisService.setValue(rateRangeCacheKey, rateRange);
 
-        // 存储区间映射表，Redisson自动还原TreeMap结构
-        String rateTableCacheKey = Constants.RedisKey.STRATEGY_RATE_TABLE_OLN_KEY + key;
-        redisService.setValue(rateTableCacheKey, rangeMap);
+        // 别名表规模与奖品数量一致，整体序列化为单个 Key
+        String rateTableCacheKey = Constants.RedisKey.STRATEGY_RATE_TABLE_ALIAS_KEY + key;
+        redisService.setValue(rateTableCacheKey, aliasTable);
 
-        log.info("OLogN 概率表已持久化至 Redis Key:{} 规模:{}", rateTableCacheKey, rangeMap.size());
+        log.info("Alias 概率表已持久化至 Redis Key:{} 规模:{}", rateTableCacheKey, aliasTable.getAwardIds().length);
+    }
+
+    /**
+     * 获取别名概率表（Alias算法）
+     *
+     * @param key 策略装配唯一标识
+     * @return 别名表
+     * @throws AppException 概率表丢失异常
+     */
+    @Override
+    public StrategyAwardAliasTableVO getStrategyAwardAliasTable(String key) {
+        String cacheKey = Constants.RedisKey.STRATEGY_RATE_TABLE_ALIAS_KEY + key;
+        StrategyAwardAliasTableVO aliasTable = redisService.getValue(cacheKey);
+        if (null == aliasTable) {
+            log.error("Alias 概率表丢失！Key: {}", key);
+            throw new AppException(ResponseCode.UN_ASSEMBLED_STRATEGY_ARMORY);
+        }
+        return aliasTable;
     }
 
     /**
@@ -552,98 +588,283 @@ public class StrategyRepository implements IStrategyRepository {
     }
 
     /**
-     * 获取预排序的区间查找表（O(LogN)）
+     * 获取区间概率查找表（O(LogN)）
      *
      * @param key 策略装配Key
-     * @return 有序区间映射表
+     * @return 区间上限/奖品ID数组对
      * @throws AppException 概率表丢失异常
      */
     @Override
-    public NavigableMap<Integer, Integer> getRangeMap(String key) {
+    public StrategyAwardRangeTableVO getStrategyAwardRangeTable(String key) {
         String cacheKey = Constants.RedisKey.STRATEGY_RATE_TABLE_OLN_KEY + key;
+        StrategyAwardRangeTableVO rangeTable = redisService.getValue(cacheKey);
+        if (null == rangeTable || null == rangeTable.getBounds() || rangeTable.getBounds().length == 0) {
+            log.error("OLogN 概率表丢失！Key: {}", key);
+            throw new AppException(ResponseCode.UN_ASSEMBLED_STRATEGY_ARMORY);
+        }
+        return rangeTable;
+    }
+
+    /**
+     * 获取O(1)全量概率查找表（单次 GET 解码整表）
+     *
+     * @param key 策略装配唯一标识
+     * @return 随机索引-奖品ID查找表
+     * @throws AppException 概率表丢失异常
+     */
+    @Override
+    public int[] getStrategyAwardSearchRateTable(String key) {
+        return getIntTable(Constants.RedisKey.STRATEGY_RATE_TABLE_O1_KEY + key);
+    }
 
-        // 1. 先用 Object 接收，避开泛型的“类型欺骗”
-        Map<Object, Object> rawMap = redisService.getValue(cacheKey);
+    /**
+     * 获取预洗牌牌堆（单次 GET 解码）
+     *
+     * @param key 策略装配唯一标识
+     * @return 奖品ID牌堆
+     */
+    @Override
+    public int[] getStrategyAwardDeckTable(String key) {
+        return getIntTable(Constants.RedisKey.STRATEGY_RATE_TABLE_DECK_KEY + key);
+    }
 
-        if (null == rawMap || rawMap.isEmpty()) {
-            log.error("OLogN 概率表丢失或格式错误！Key: {}", key);
+    /**
+     * 获取牌堆轮次置换种子
+     *
+     * @param key 策略装配唯一标识
+     * @return 轮次置换种子
+     * @throws AppException 种子丢失异常
+     */
+    @Override
+    public long getStrategyAwardDeckSeed(String key) {
+        Long seed = redisService.getValue(Constants.RedisKey.STRATEGY_RATE_TABLE_DECK_SEED_KEY + key);
+        if (null == seed) {
+            log.error("牌堆置换种子丢失！Key: {}", key);
             throw new AppException(ResponseCode.UN_ASSEMBLED_STRATEGY_ARMORY);
         }
+        return seed;
+    }
 
-        // 2.关键：重建具备红黑树结构的 TreeMap，并强制转换 Key 为 Integer
-        NavigableMap<Integer, Integer> rangeMap = new TreeMap<>();
-        try {
-            for (Map.Entry<Object, Object> entry : rawMap.entrySet()) {
-                // entry.getKey().toString() 拿到字符串 "100"，再解析回 Integer 100
-                Integer k = Integer.valueOf(entry
-                        .getKey()
-                        .toString());
-                Integer v = Integer.valueOf(entry
-                        .getValue()
-                        .toString());
-                rangeMap.put(k, v);
-            }
-        } catch (Exception e) {
-            log.error("OLogN 概率表数据转换异常！Key: {}, 原始对象类型: {}", key, rawMap
-                    .getClass()
-                    .getName(), e);
-            throw new AppException(ResponseCode.UN_ERROR, "概率表数据解析失败");
+    /**
+     * 推进牌堆发牌游标
+     *
+     * @param key 版本化存储 Key
+     * @return 自增后的游标值
+     */
+    @Override
+    public long nextStrategyAwardDeckCursor(String key) {
+        return redisService.incr(Constants.RedisKey.STRATEGY_RATE_TABLE_DECK_CURSOR_KEY + key);
+    }
+
+    /**
+     * 定长大端整数数组编码为单个 Redis String 写入
+     *
+     * @param cacheKey 缓存Key
+     * @param table    整数数组
+     * @return 写入字节数
+     */
+    private int storeIntTable(String cacheKey, int[] table) {
+        ByteBuffer buffer = ByteBuffer.allocate(table.length * INT_TABLE_SLOT_BYTES);
+        buffer
+                .asIntBuffer()
+                .put(table);
+        redisService
+                .getBinaryStream(cacheKey)
+                .set(buffer.array());
+        return buffer.capacity();
+    }
+
+    /**
+     * 单次 GET 读取并解码定长大端整数数组
+     *
+     * @param cacheKey 缓存Key
+     * @return 整数数组
+     * @throws AppException 数据丢失或格式错误
+     */
+    private int[] getIntTable(String cacheKey) {
+        byte[] bytes = redisService
+                .getBinaryStream(cacheKey)
+                .get();
+        if (null == bytes || bytes.length == 0 || bytes.length % INT_TABLE_SLOT_BYTES != 0) {
+            log.error("概率表丢失或格式错误！Key: {}", cacheKey);
+            throw new AppException(ResponseCode.UN_ASSEMBLED_STRATEGY_ARMORY);
         }
 
-        return rangeMap;
+        int[] table = new int[bytes.length / INT_TABLE_SLOT_BYTES];
+        ByteBuffer
+                .wrap(bytes)
+                .asIntBuffer()
+                .get(table);
+        return table;
     }
 
     /**
-     * 根据随机数获取中奖奖品ID（O(1)）
+     * 申请新的概率表版本号
+     *
+     * @param key 策略装配唯一标识
+     * @return 新版本号
+     */
+    @Override
+    public long nextStrategyRateTableVersion(String key) {
+        return redisService.incr(Constants.RedisKey.STRATEGY_RATE_TABLE_VERSION_KEY + key);
+    }
+
+    /**
+     * 原子切换概率表版本指针（蓝绿切换）
+     * 1. CAS 切换：仅当新版本高于当前版本时切换，避免并发装配导致指针回退。
+     * 2. 延迟清理：被替换（或落败）版本的量程与概率表 Key 设置过期时间，在途请求仍可读取旧版本。
+     * 3. 版本广播：通知集群各节点剔除落后的 JVM 本地副本。
      *
      * @param key     策略装配唯一标识
-     * @param rateKey 随机索引值
-     * @return 中奖奖品ID
+     * @param pointer 新版本指针
      */
     @Override
-    public Integer getStrategyAwardAssemble(String key, int rateKey) {
-        String cacheKey = Constants.RedisKey.STRATEGY_RATE_TABLE_O1_KEY + key;
-        return redisService.getFromMap(cacheKey, rateKey);
+    public void switchStrategyRateTable(String key, StrategyRateTablePointerVO pointer) {
+        RBucket<StrategyRateTablePointerVO> bucket =
+                redisService.getBucket(Constants.RedisKey.STRATEGY_RATE_TABLE_POINTER_KEY + key);
+
+        StrategyRateTablePointerVO retired;
+        while (true) {
+            StrategyRateTablePointerVO current = bucket.get();
+            if (null != current && current.getVersion() >= pointer.getVersion()) {
+                // 已有更新版本生效，本次装配结果直接作废
+                log.warn("概率表版本切换落败 Key:{} 当前版本:{} 本次版本:{}", key, current.getVersion(), pointer.getVersion());
+                retired = pointer;
+                break;
+            }
+            if (bucket.compareAndSet(current, pointer)) {
+                retired = current;
+                break;
+            }
+        }
+
+        if (null != retired) {
+            retireStrategyRateTable(retired.tableKey(key));
+        }
+
+        if (retired != pointer) {
+            redisService
+                    .getTopic(Constants.RedisKey.STRATEGY_RATE_TABLE_VERSION_TOPIC)
+                    .publish(StrategyRateTableVersionVO
+                            .builder()
+                            .key(key)
+                            .version(pointer.getVersion())
+                            .build());
+            log.info("概率表版本切换完成 Key:{} 版本:{} 算法:{}", key, pointer.getVersion(), pointer.getAlgorithm());
+        }
     }
 
-    // ========== 库存管理 ==========
+    /**
+     * 查询当前生效的概率表版本指针
+     *
+     * @param key 策略装配唯一标识
+     * @return 版本指针，未装配返回null
+     */
+    @Override
+    public StrategyRateTablePointerVO queryStrategyRateTablePointer(String key) {
+        return redisService.getValue(Constants.RedisKey.STRATEGY_RATE_TABLE_POINTER_KEY + key);
+    }
+
+    /**
+     * 清理策略装配相关的配置缓存，下次查询回源数据库
+     *
+     * @param strategyId 策略ID
+     * @param awardId    发生变更的奖品ID
+     */
+    @Override
+    public void clearStrategyArmoryCache(Long strategyId, Integer awardId) {
+        redisService.remove(Constants.RedisKey.STRATEGY_KEY + strategyId);
+        redisService.remove(Constants.RedisKey.STRATEGY_AWARD_LIST_KEY + strategyId);
+        redisService.remove(Constants.RedisKey.STRATEGY_AWARD_KEY + strategyId + Constants.UNDERLINE + awardId);
+        redisService.remove(Constants.RedisKey.STRATEGY_RULE_WEIGHT_KEY + strategyId);
+    }
 
     /**
-     * 初始化缓存奖品库存（原子操作）
+     * 持久化概率表本地快照
      *
-     * @param cacheKey   库存缓存键
-     * @param awardCount 奖品初始库存
+     * @param key       策略装配唯一标识
+     * @param rateTable 概率表副本
      */
     @Override
-    public void cacheStrategyAwardCount(String cacheKey, Integer awardCount) {
-        if (redisService.isExists(cacheKey)) {
-            return; // 已初始化则跳过，避免覆盖
+    public void storeStrategyRateTableSnapshot(String key, StrategyRateTableVO rateTable) {
+        rateTableSnapshotStore.write(key, rateTable);
+    }
+
+    /**
+     * 读取全部有效的概率表本地快照
+     *
+     * @return 策略装配Key -> 概率表副本
+     */
+    @Override
+    public Map<String, StrategyRateTableVO> queryStrategyRateTableSnapshot() {
+        return rateTableSnapshotStore.readAll();
+    }
+
+    /**
+     * 延迟清理指定版本的量程与概率表（各算法存储 Key 统一设置过期）
+     *
+     * @param tableKey 版本化存储 Key
+     */
+    private void retireStrategyRateTable(String tableKey) {
+        String[] cacheKeys = {
+                Constants.RedisKey.STRATEGY_RATE_RANGE_KEY + tableKey,
+                Constants.RedisKey.STRATEGY_RATE_TABLE_O1_KEY + tableKey,
+                Constants.RedisKey.STRATEGY_RATE_TABLE_OLN_KEY + tableKey,
+                Constants.RedisKey.STRATEGY_RATE_TABLE_ALIAS_KEY + tableKey,
+                Constants.RedisKey.STRATEGY_RATE_TABLE_DECK_KEY + tableKey,
+                Constants.RedisKey.STRATEGY_RATE_TABLE_DECK_SEED_KEY + tableKey,
+                Constants.RedisKey.STRATEGY_RATE_TABLE_DECK_CURSOR_KEY + tableKey
+        };
+        for (String cacheKey : cacheKeys) {
+            redisService.expire(cacheKey, RATE_TABLE_RETIRE_DELAY_SECONDS, TimeUnit.SECONDS);
         }
-        redisService.setAtomicLong(cacheKey, awardCount); // 原子设置，防止并发问题
+    }
+
+    // ========== 库存管理 ==========
+
+    /**
+     * 批量初始化缓存奖品库存（SETNX 语义，Pipeline 提交；达到分段阈值的热点奖品单独分段装配）
+     *
+     * @param cacheKeyAwardCountMap 库存缓存键-奖品初始库存
+     */
+    @Override
+    public void cacheStrategyAwardCount(Map<String, Integer> cacheKeyAwardCountMap) {
+        Map<String, Long> keyValues = new HashMap<>((int) (cacheKeyAwardCountMap.size() / 0.75f) + 1);
+        cacheKeyAwardCountMap.forEach((cacheKey, awardCount) -> {
+            if (!stockCounter.cacheStock(cacheKey, awardCount)) keyValues.put(cacheKey, awardCount.longValue());
+        });
+        redisService.setAtomicLongIfAbsent(keyValues);
     }
 
     /**
      * 奖品库存扣减（防超卖）
+     * 单次 EVALSHA 原子完成 库存为正时扣减 + 序号账本占位，替代 decr / incr 回补 / setNx 三次往返
      *
      * @param key         库存缓存键
      * @param endDateTime 活动结束时间
-     * @return true=扣减成功 false=失败
-     * @throws AppException 活动过期/库存不足异常
+     * @return true=扣减成功 false=序号锁占位失败
+     * @throws AppException 库存不足异常
      */
     @Override
     public Boolean subtractAwardStock(String key, Date endDateTime) {
-        // 1. 原子扣减，保证库存操作一致性
-        long surplus = redisService.decr(key);
-        if (surplus < 0) {
-            redisService.incr(key); // 库存不足，回补计数器
+        StrategyAwardStockStatusVO stockStatus = subtractAwardStockByScript(key, endDateTime);
+        if (StrategyAwardStockStatusVO.EMPTY == stockStatus) {
             throw new AppException(ResponseCode.STRATEGY_AWARD_STOCK_EMPTY);
         }
+        return StrategyAwardStockStatusVO.SUCCESS == stockStatus;
+    }
 
-        // 2. 构建唯一锁，实现幂等防超卖
-        String lockKey = key + Constants.UNDERLINE + surplus;
+    /**
+     * 脚本化库存扣减（单 Key 单次网络往返；分段库存随机选取未售罄分段扣减）
+     *
+     * @param cacheKey    库存缓存键
+     * @param endDateTime 活动结束时间
+     * @return 扣减结果
+     */
+    @Override
+    public StrategyAwardStockStatusVO subtractAwardStockByScript(String cacheKey, Date endDateTime) {
         long expire = (endDateTime != null) ? (endDateTime.getTime() - System.currentTimeMillis()) / 1000 : 86400;
-
-        return redisService.setNx(lockKey, Math.max(1, expire), TimeUnit.SECONDS); // 过期时间至少1秒
+        return StrategyAwardStockStatusVO.fromCode(stockCounter.subtract(cacheKey, expire));
     }
 
     /**
@@ -705,7 +926,7 @@ public class StrategyRepository implements IStrategyRepository {
     // ========== 用户抽奖次数查询 ==========
 
     /**
-     * 查询用户今日抽奖次数
+     * 查询用户今日抽奖次数（Redis 计数器单次读取，缺失时从数据库对账重建）
      *
      * @param userId     用户ID
      * @param strategyId 策略ID
@@ -713,6 +934,12 @@ public class StrategyRepository implements IStrategyRepository {
      */
     @Override
     public Integer queryTodayUserRaffleCount(String userId, Long strategyId) {
+        String day = RaffleActivityAccountDay.currentDay();
+        String cacheKey = Constants.RedisKey.USER_RAFFLE_DAY_COUNT_KEY + strategyId + Constants.UNDERLINE + userId +
+                Constants.UNDERLINE + day;
+        Long raffleCount = redisService.getAtomicLongIfExists(cacheKey);
+        if (null != raffleCount) return raffleCount.intValue();
+
         // 先通过策略ID查关联活动ID
         Long activityId = raffleActivityDao.queryActivityIdByStrategyId(strategyId);
         if (Objects.isNull(activityId)) {
@@ -726,19 +953,17 @@ public class StrategyRepository implements IStrategyRepository {
                 .userId(userId)
                 .activityId(activityId)
                 .build();
-        queryCondition.setDay(RaffleActivityAccountDay.currentDay()); // 设置今日日期
+        queryCondition.setDay(day);
 
+        // 已抽奖次数 = 总次数 - 剩余次数，今日无抽奖记录为0
         RaffleActivityAccountDay userAccountDay = raffleActivityAccountDayDao.queryActivityAccountDay(queryCondition);
-        if (Objects.isNull(userAccountDay)) {
-            return 0; // 今日无抽奖记录返回0
-        }
-
-        // 已抽奖次数 = 总次数 - 剩余次数
-        return userAccountDay.getDayCount() - userAccountDay.getDayCountSurplus();
+        int dayRaffleCount = Objects.isNull(userAccountDay) ? 0 :
+                userAccountDay.getDayCount() - userAccountDay.getDayCountSurplus();
+        return cacheUserRaffleCount(cacheKey, dayRaffleCount);
     }
 
     /**
-     * 查询用户累计抽奖次数
+     * 查询用户累计抽奖次数（Redis 计数器单次读取，缺失时从数据库对账重建）
      *
      * @param userId     用户ID
      * @param strategyId 策略ID
@@ -746,6 +971,10 @@ public class StrategyRepository implements IStrategyRepository {
      */
     @Override
     public Integer queryTotalUserRaffleCount(String userId, Long strategyId) {
+        String cacheKey = Constants.RedisKey.USER_RAFFLE_TOTAL_COUNT_KEY + strategyId + Constants.UNDERLINE + userId;
+        Long raffleCount = redisService.getAtomicLongIfExists(cacheKey);
+        if (null != raffleCount) return raffleCount.intValue();
+
         // 先通过策略ID查关联活动ID
         Long activityId = raffleActivityDao.queryActivityIdByStrategyId(strategyId);
         if (Objects.isNull(activityId)) {
@@ -760,14 +989,79 @@ public class StrategyRepository implements IStrategyRepository {
                 .activityId(activityId)
                 .build();
 
+        // 累计已抽奖次数 = 总次数 - 剩余次数，无账户记录为0
         RaffleActivityAccount userAccount = raffleActivityAccountDao.queryTotalUserRaffleCount(queryCondition);
-        if (Objects.isNull(userAccount)) {
-            log.info("用户活动账户不存在！userId: {} activityId: {}", userId, activityId);
-            return 0; // 无账户记录返回0
+        int totalRaffleCount = Objects.isNull(userAccount) ? 0 :
+                userAccount.getTotalCount() - userAccount.getTotalCountSurplus();
+        return cacheUserRaffleCount(cacheKey, totalRaffleCount);
+    }
+
+    /**
+     * 预取单次抽奖上下文
+     * 仅读取预取计划内的用户累计/当日抽奖次数计数器（同一 Pipeline），仅缺失项回源（数据库对账/缓存重建）。
+     *
+     * @param userId            用户ID
+     * @param strategyId        策略ID
+     * @param raffleContextPlan 预取计划
+     * @return 抽奖上下文
+     */
+    @Override
+    public RaffleContextVO queryRaffleContext(String userId, Long strategyId, RaffleContextPlanVO raffleContextPlan) {
+        String totalCountKey = Constants.RedisKey.USER_RAFFLE_TOTAL_COUNT_KEY + strategyId + Constants.UNDERLINE + userId;
+        String dayCountKey = Constants.RedisKey.USER_RAFFLE_DAY_COUNT_KEY + strategyId + Constants.UNDERLINE + userId +
+                Constants.UNDERLINE + RaffleActivityAccountDay.currentDay();
+
+        // 1. 单次 Pipeline 批量读取计划内的计数器（响应顺序与命令顺序一致）
+        RBatch batch = redisService.createBatch();
+        if (raffleContextPlan.isTotalRaffleCount()) {
+            batch
+                    .<String>getBucket(totalCountKey, StringCodec.INSTANCE)
+                    .getAsync();
+        }
+        if (raffleContextPlan.isTodayRaffleCount()) {
+            batch
+                    .<String>getBucket(dayCountKey, StringCodec.INSTANCE)
+                    .getAsync();
+        }
+        List<?> responses = batch
+                .execute()
+                .getResponses();
+
+        // 2. 缺失项回源补齐（未纳入计划的计数器保持 null）
+        int index = 0;
+        Integer totalRaffleCount = null;
+        if (raffleContextPlan.isTotalRaffleCount()) {
+            String totalCount = (String) responses.get(index++);
+            totalRaffleCount = null != totalCount ? Integer.valueOf(totalCount) :
+                    queryTotalUserRaffleCount(userId, strategyId);
+        }
+        Integer todayRaffleCount = null;
+        if (raffleContextPlan.isTodayRaffleCount()) {
+            String dayCount = (String) responses.get(index);
+            todayRaffleCount = null != dayCount ? Integer.valueOf(dayCount) :
+                    queryTodayUserRaffleCount(userId, strategyId);
         }
 
-        // 累计已抽奖次数 = 总次数 - 剩余次数
-        return userAccount.getTotalCount() - userAccount.getTotalCountSurplus();
+        return RaffleContextVO
+                .builder()
+                .userId(userId)
+                .strategyId(strategyId)
+                .totalRaffleCount(totalRaffleCount)
+                .todayRaffleCount(todayRaffleCount)
+                .build();
+    }
+
+    /**
+     * 以数据库对账结果重建抽奖次数计数器
+     * 1. 仅 Key 不存在时写入：并发下单已先行重建并自增的计数不会被较旧的数据库读数覆盖。
+     * 2. 墓碑存在时放弃重建：查库与重建之间有下单事务提交且自增时计数器缺失，本次读数可能少计该次下单，
+     * 直接返回读数而不写入，由墓碑过期后的下一次读取重新对账。
+     * 3. 计数器按周期过期，过期后下一次读取重新对账，收敛下单自增失败等极端情况下的偏差。
+     */
+    private int cacheUserRaffleCount(String cacheKey, int raffleCount) {
+        long cachedCount = redisService.setAtomicLongIfAbsent(cacheKey, raffleCount, USER_RAFFLE_COUNT_EXPIRE_HOURS,
+                TimeUnit.HOURS, Constants.RedisKey.USER_RAFFLE_COUNT_TOMBSTONE_KEY + "{" + cacheKey + "}");
+        return cachedCount < 0 ? raffleCount : (int) cachedCount;
     }
 
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package com.c.infrastructure.dao;
 import com.c.infrastructure.dao.po.RaffleActivity;
 import org.apache.ibatis.annotations.Mapper;
 
+import java.util.List;
+
 /**
  * 抽奖活动基础配置数据访问接口 (Data Access Object)
  * 1. 基础数据检索：映射 `raffle_activity` 表，获取活动起止时间、状态、关联策略等元数据。
@@ -47,4 +49,14 @@ public interface IRaffleActivityDao {
      */
     Long queryActivityIdByStrategyId(Long strategyId);
 
+    /**
+     * 查询指定状态且未结束的活动 ID 列表
+     * * 典型场景：
+     * 应用启动预热阶段批量发现需要装配的活动，提前完成 SKU 库存与抽奖策略的缓存装配。
+     *
+     * @param state 活动状态编码
+     * @return 活动 ID 集合
+     */
+    List<Long> queryOpenActivityIdList(String state);
+
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package com.c.infrastructure.redis;
 import com.c.domain.activity.model.entity.ActivitySkuEntity;
 import org.redisson.api.*;
 
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -176,6 +178,36 @@ public interface IRedisService {
      */
     <T> RBloomFilter<T> getBloomFilter(String key);
 
+    /**
+     * 获取发布订阅主题
+     * 业务场景：集群内广播概率表版本变更，驱动各节点 JVM 本地副本失效。
+     */
+    RTopic getTopic(String key);
+
+    /**
+     * 创建批处理（Pipeline）
+     * 业务场景：大规模概率表装配时分片批量写入，减少网络往返次数。
+     */
+    RBatch createBatch();
+
+    /**
+     * 获取二进制流对象（原始字节，不经过 JSON 编解码）
+     * 业务场景：紧凑编码的整数表（O1 概率表、牌堆），写入为单次 SET，读取为单次 GET 后在 JVM 内解码。
+     */
+    RBinaryStream getBinaryStream(String key);
+
+    /**
+     * 获取通用对象桶
+     * 业务场景：需要 CAS（compareAndSet）等原子语义的单值读写，如概率表版本指针切换。
+     */
+    <T> RBucket<T> getBucket(String key);
+
+    /**
+     * 设置 Key 过期时间（任意数据结构）
+     * 业务场景：蓝绿装配后旧版本数据的延迟清理。
+     */
+    void expire(String key, long delay, TimeUnit timeUnit);
+
     /**
      * 初始化原子长整型数值
      * 用于在库存预热时设置初始剩余量。
@@ -183,13 +215,54 @@ public interface IRedisService {
     void setAtomicLong(String key, long value);
 
     /**
-     * 原子设置 Key（分布式锁简易实现）
-     * 业务场景：抢占式操作。在库存扣减逻辑中，通过 setNx 确保只有一个请求能处理特定的库存余量位。
+     * 读取原子长整型数值（不存在时返回 0）
+     */
+    long getAtomicLong(String key);
+
+    /**
+     * 批量初始化原子长整型数值（仅 Key 不存在时写入，单次 Pipeline 提交）
+     * 业务场景：装配预热时批量初始化奖品/SKU 库存，已存在的库存计数不被覆盖。
+     */
+    void setAtomicLongIfAbsent(Map<String, Long> keyValues);
+
+    /**
+     * 初始化原子长整型数值（仅 Key 与墓碑均不存在时写入，带过期时间，Lua 脚本保证判断与写入原子）
+     * 业务场景：计数器缺失时从数据库对账重建，不覆盖并发写入的较新计数；
+     * 墓碑存在说明对账期间有写入方发现计数器缺失，本次数据库读数可能早于其事务提交，放弃重建。
      *
-     * @param lockKey 锁标识
-     * @return true: 成功获得锁（此前不存在）；false: 获取锁失败
+     * @param tombstoneKey 墓碑 Key（须与计数器 Key 同槽）
+     * @return 计数器当前值，墓碑存在返回 -1
      */
-    Boolean setNx(String lockKey);
+    long setAtomicLongIfAbsent(String key, long value, long expired, TimeUnit timeUnit, String tombstoneKey);
+
+    /**
+     * 读取原子长整型数值（区分"不存在"与 0）
+     *
+     * @return 数值，Key 不存在返回null
+     */
+    Long getAtomicLongIfExists(String key);
+
+    /**
+     * 原子自增 1（仅 Key 已存在时执行；Key 不存在时写入墓碑，Lua 脚本保证判断、自增与墓碑写入原子）
+     * 业务场景：计数器由数据库对账重建，缺失时不可从 0 起算；墓碑阻止读取方以本次写入前的数据库读数重建计数器。
+     *
+     * @param tombstoneKey     墓碑 Key（须与计数器 Key 同槽）
+     * @param tombstoneExpired 墓碑过期时间，须覆盖读取方从查库到重建的窗口
+     * @return 自增后的数值，Key 不存在返回 -1
+     */
+    long incrIfExists(String key, String tombstoneKey, long tombstoneExpired, TimeUnit timeUnit);
+
+    /**
+     * 以 EVALSHA 执行 Lua 脚本（脚本 SHA 本地缓存，Redis 侧脚本缓存丢失时自动重新加载）
+     * 业务场景：多步 Redis 操作需原子执行且只允许单次网络往返，如抽奖库存扣减 + 序号锁占位。
+     *
+     * @param script 脚本内容
+     * @param keys   KEYS 参数
+     * @param values ARGV 参数
+     * @return 脚本整数返回值
+     */
+    long evalSha(String script, List<Object> keys, Object... values);
+
     /**
      * 设置基础键值对
      *
@@ -199,6 +272,4 @@ public interface IRedisService {
      * @param timeUnit 时间单位（如 TimeUnit.MINUTES）
      */
      <T> void setValue(String key, T value, long timeout, TimeUnit timeUnit);
-
-    Boolean setNx(String key, long expired, TimeUnit timeUnit);
 }
\ No newline at end of file
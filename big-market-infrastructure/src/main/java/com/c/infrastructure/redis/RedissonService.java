@@ -1,10 +1,16 @@
 package com.c.infrastructure.redis;
 
 import org.redisson.api.*;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -250,6 +256,48 @@ public class RedissonService implements IRedisService {
         return redissonClient.getBloomFilter(key);
     }
 
+    /**
+     * 获取发布订阅主题 - 用于集群内的轻量级广播通知
+     */
+    @Override
+    public RTopic getTopic(String key) {
+        return redissonClient.getTopic(key);
+    }
+
+    /**
+     * 创建批处理 - 多条命令合并为一次网络往返（Pipeline）
+     */
+    @Override
+    public RBatch createBatch() {
+        return redissonClient.createBatch();
+    }
+
+    /**
+     * 获取二进制流对象 - 原始字节读写，整表单次 SET 写入、单次 GET 读取
+     */
+    @Override
+    public RBinaryStream getBinaryStream(String key) {
+        return redissonClient.getBinaryStream(key);
+    }
+
+    /**
+     * 获取通用对象桶 - 支持 CAS 等原子操作
+     */
+    @Override
+    public <T> RBucket<T> getBucket(String key) {
+        return redissonClient.getBucket(key);
+    }
+
+    /**
+     * 设置 Key 过期时间 - PEXPIRE 作用于 Key 本身，与数据结构无关
+     */
+    @Override
+    public void expire(String key, long delay, TimeUnit timeUnit) {
+        redissonClient
+                .getBucket(key)
+                .expire(Duration.ofMillis(timeUnit.toMillis(delay)));
+    }
+
     /**
      * 初始化原子长整型值
      */
@@ -259,20 +307,74 @@ public class RedissonService implements IRedisService {
     }
 
     /**
-     * 原子设置 Key（分布式锁实现）
-     * * 业务场景：
-     * 1. 分布式排他锁：确保在高并发下，只有一个线程能执行特定逻辑（如库存扣减补偿）。
-     * 2. 幂等性控制：防止同一业务请求被重复处理。
-     * 增加了 30 秒的自动过期时间。这是分布式锁的关键，防止因进程意外宕机导致的“永久死锁”。
-     * 30 秒是一个通用的防御性时长，足以覆盖大多数业务逻辑的执行。
-     *
-     * @param key 锁的唯一标识
-     * @return true: 抢锁成功；false: 锁已被占用
+     * 读取原子长整型值
+     */
+    @Override
+    public long getAtomicLong(String key) {
+        return redissonClient.getAtomicLong(key).get();
+    }
+
+    /**
+     * 批量初始化原子长整型值（SETNX 语义，Pipeline 提交）
+     * 注：RAtomicLong 以十进制字符串存储，此处使用 StringCodec 写入以保持格式兼容
      */
     @Override
-    public Boolean setNx(String key) {
-        // 使用 setIfAbsent 配合过期时间，确保锁的原子性与安全性
-        return redissonClient.getBucket(key).setIfAbsent("lock", Duration.ofSeconds(30));
+    public void setAtomicLongIfAbsent(Map<String, Long> keyValues) {
+        if (keyValues.isEmpty()) return;
+        RBatch batch = redissonClient.createBatch();
+        keyValues.forEach((key, value) -> batch
+                .<String>getBucket(key, StringCodec.INSTANCE)
+                .trySetAsync(String.valueOf(value)));
+        batch.execute();
+    }
+
+    /** 仅 Key 存在时自增，避免过期后从 0 起算；Key 不存在时写入墓碑（KEYS[2]，毫秒过期） */
+    private static final String INCR_IF_EXISTS_SCRIPT = "if redis.call('exists', KEYS[1]) == 1 then " +
+            "return redis.call('incr', KEYS[1]) end " +
+            "redis.call('set', KEYS[2], '1', 'PX', ARGV[1]) return -1";
+
+    /** 墓碑（KEYS[2]）不存在时 SET NX 写入并返回当前值，墓碑存在返回 -1 */
+    private static final String SET_IF_ABSENT_UNLESS_TOMBSTONE_SCRIPT = "if redis.call('exists', KEYS[2]) == 1 then " +
+            "return -1 end " +
+            "if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then return tonumber(ARGV[1]) end " +
+            "return tonumber(redis.call('get', KEYS[1]))";
+
+    /** 脚本内容 -> 脚本 SHA */
+    private final Map<String, String> scriptShaMap = new ConcurrentHashMap<>();
+
+    @Override
+    public long evalSha(String script, List<Object> keys, Object... values) {
+        RScript rScript = redissonClient.getScript(StringCodec.INSTANCE);
+        String sha = scriptShaMap.computeIfAbsent(script, rScript::scriptLoad);
+        try {
+            return rScript.<Long>evalSha(RScript.Mode.READ_WRITE, sha, RScript.ReturnType.INTEGER, keys, values);
+        } catch (RedisException e) {
+            if (null == e.getMessage() || !e.getMessage().contains("NOSCRIPT")) throw e;
+            // Redis 重启或 SCRIPT FLUSH 后脚本缓存丢失，重新加载后重试一次
+            sha = rScript.scriptLoad(script);
+            scriptShaMap.put(script, sha);
+            return rScript.<Long>evalSha(RScript.Mode.READ_WRITE, sha, RScript.ReturnType.INTEGER, keys, values);
+        }
+    }
+
+    @Override
+    public long setAtomicLongIfAbsent(String key, long value, long expired, TimeUnit timeUnit, String tombstoneKey) {
+        return evalSha(SET_IF_ABSENT_UNLESS_TOMBSTONE_SCRIPT, Arrays.asList(key, tombstoneKey),
+                String.valueOf(value), String.valueOf(timeUnit.toMillis(expired)));
+    }
+
+    @Override
+    public Long getAtomicLongIfExists(String key) {
+        String value = redissonClient
+                .<String>getBucket(key, StringCodec.INSTANCE)
+                .get();
+        return null == value ? null : Long.valueOf(value);
+    }
+
+    @Override
+    public long incrIfExists(String key, String tombstoneKey, long tombstoneExpired, TimeUnit timeUnit) {
+        return evalSha(INCR_IF_EXISTS_SCRIPT, Arrays.asList(key, tombstoneKey),
+                String.valueOf(timeUnit.toMillis(tombstoneExpired)));
     }
 
     @Override
@@ -281,27 +383,4 @@ public class RedissonService implements IRedisService {
         // Redisson 的新版 API 推荐这样调用，避免了单位混淆
         redissonClient.getBucket(key).set(value, Duration.ofMillis(timeUnit.toMillis(timeout)));
     }
-    /**
-     * 分布式锁/原子占位实现
-     *
-     * @param key      锁的唯一标识（通常是业务 ID 或特定操作名）
-     * @param expired  过期数值
-     * @param timeUnit 时间单位（秒、毫秒等）
-     * @return true-成功获取锁/占位成功；false-锁已被占用/占位失败
-     */
-    @Override
-    public Boolean setNx(String key, long expired, TimeUnit timeUnit) {
-        // 1. 【单位转换】将传入的各种时间单位（如：秒、分钟）统一转换为毫秒。
-        // 这样做可以适配 Java 8 的 Duration API，同时保证在不同单位下计算的精确度。
-        long millis = timeUnit.toMillis(expired);
-
-        // 2. 调用 Redisson 的 setIfAbsent 方法。
-        // 该方法封装了 Redis 的原子指令：SET key value NX PX milliseconds
-        // - NX (Not eXists): 只有当 Key 不存在时才执行设置操作（即“占坑”）。
-        // - PX: 设置以毫秒为单位的过期时间。
-        //
-        // 注意：这里使用 java.time.Duration.ofMillis(millis) 是为了适配 Redisson 的新版 API，
-        // 同时也解决了旧版本 trySet 方法被弃用（Deprecated）的问题。
-        return redissonClient.getBucket(key).setIfAbsent("lock", Duration.ofMillis(millis));
-    }
-}
\ No newline at end of file
+}
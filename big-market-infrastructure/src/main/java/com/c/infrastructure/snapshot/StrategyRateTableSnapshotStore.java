@@ -0,0 +1,269 @@
+package com.c.infrastructure.snapshot;
+
+import com.c.domain.strategy.model.vo.StrategyRateTablePointerVO;
+import com.c.domain.strategy.model.vo.StrategyRateTableVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * 策略概率表本地快照存储（内存映射文件）
+ * 1. 写入：提交后由单个后台线程异步落盘（同一Key未落盘的旧版本直接被新版本覆盖），抽奖请求线程不承担刷盘开销；
+ * 每次写入使用独立临时文件，经内存映射一次性写入并刷盘后原子替换，进程中途退出不会留下半截文件。
+ * 2. 读取：内存映射只读加载，校验魔数、格式版本与 CRC32 后解码为概率表副本；任一校验失败即丢弃该快照。
+ * 3. 映射释放：不通过反射强制解除映射，映射区域随 MappedByteBuffer 被 GC 回收；读取结果均复制到堆内，不持有映射。
+ * 4. 残留清理：写入线程中途退出遗留的 *.tmp 临时文件在读取快照时一并删除。
+ * 5. 布局：魔数 | 格式版本 | 概率表版本 | 算法名 | 量程 | table | awardIds | aliases | 置换种子 | CRC32，数组以长度前缀（-1 表示空）+ 大端 int 存储。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Slf4j
+@Component
+public class StrategyRateTableSnapshotStore {
+
+    /** 快照文件魔数（"BMRT"） */
+    private static final int MAGIC = 0x424D5254;
+
+    /** 快照格式版本，布局变更时递增，旧格式快照直接丢弃 */
+    private static final int FORMAT_VERSION = 2;
+
+    /** 快照文件后缀 */
+    private static final String SUFFIX = ".snap";
+
+    /** 写入临时文件后缀 */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /** 空数组长度标记 */
+    private static final int NULL_LENGTH = -1;
+
+    @Value("${strategy.armory.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${strategy.armory.snapshot.dir:./data/strategy-snapshot}")
+    private String dir;
+
+    /** 装配Key -> 待落盘的最新概率表副本 */
+    private final Map<String, StrategyRateTableVO> pendingMap = new ConcurrentHashMap<>();
+
+    /** 单线程异步写入（守护线程，队列满时丢弃，快照仅为重启加速） */
+    private final ExecutorService writeExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(1024), r -> {
+        Thread thread = new Thread(r, "strategy-snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    }, new ThreadPoolExecutor.DiscardPolicy());
+
+    /** 写入线程正在使用的临时文件，清理残留时跳过 */
+    private volatile Path writingTemp;
+
+    /**
+     * 提交概率表快照异步写入（失败仅记录日志，不影响装配与抽奖主流程）
+     *
+     * @param key       策略装配唯一标识
+     * @param rateTable 概率表副本
+     */
+    public void write(String key, StrategyRateTableVO rateTable) {
+        if (!enabled) return;
+        // 同一Key已有待写入任务时仅替换内容，由该任务写入最新版本
+        StrategyRateTableVO previous = pendingMap.put(key, rateTable);
+        if (null != previous) return;
+        writeExecutor.execute(() -> {
+            StrategyRateTableVO latest = pendingMap.remove(key);
+            if (null != latest) doWrite(key, latest);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeExecutor.shutdown();
+    }
+
+    private void doWrite(String key, StrategyRateTableVO rateTable) {
+        Path temp = null;
+        try {
+            Path directory = Files.createDirectories(Paths.get(dir));
+            Path target = directory.resolve(key + SUFFIX);
+            temp = Files.createTempFile(directory, key + ".", TEMP_SUFFIX);
+            writingTemp = temp;
+            byte[] algorithm = rateTable
+                    .getAlgorithm()
+                    .getBytes(StandardCharsets.UTF_8);
+
+            // 1. 计算文件长度，映射后一次性写入
+            long size = Integer.BYTES * 2L + Long.BYTES + Integer.BYTES + algorithm.length + Integer.BYTES +
+                    arrayBytes(rateTable.getTable()) + arrayBytes(rateTable.getAwardIds()) +
+                    arrayBytes(rateTable.getAliases()) + Long.BYTES + Long.BYTES;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(MAGIC);
+                buffer.putInt(FORMAT_VERSION);
+                buffer.putLong(rateTable.getVersion());
+                buffer.putInt(algorithm.length);
+                buffer.put(algorithm);
+                buffer.putInt(rateTable.getRateRange());
+                putArray(buffer, rateTable.getTable());
+                putArray(buffer, rateTable.getAwardIds());
+                putArray(buffer, rateTable.getAliases());
+                buffer.putLong(rateTable.getSeed());
+
+                // 2. 尾部追加 CRC32 校验（覆盖前述全部内容）
+                buffer.putLong(checksum(buffer, buffer.position()));
+                buffer.force();
+            }
+
+            // 3. 原子替换，读方要么看到旧快照，要么看到完整的新快照
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+        } catch (Exception e) {
+            log.warn("概率表快照写入失败 Key:{} 版本:{}", key, rateTable.getVersion(), e);
+        } finally {
+            writingTemp = null;
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * 读取全部有效快照
+     *
+     * @return 装配Key -> 概率表副本
+     */
+    public Map<String, StrategyRateTableVO> readAll() {
+        Map<String, StrategyRateTableVO> snapshots = new HashMap<>();
+        Path directory = Paths.get(dir);
+        if (!enabled || !Files.isDirectory(directory)) return snapshots;
+
+        deleteStaleTemps(directory);
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path path : paths) {
+                String fileName = path
+                        .getFileName()
+                        .toString();
+                String key = fileName.substring(0, fileName.length() - SUFFIX.length());
+                try {
+                    StrategyRateTableVO rateTable = read(key, path);
+                    if (null != rateTable) snapshots.put(key, rateTable);
+                } catch (Exception e) {
+                    log.warn("概率表快照读取失败，已忽略 Key:{}", key, e);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("概率表快照目录读取失败 dir:{}", dir, e);
+        }
+        return snapshots;
+    }
+
+    private StrategyRateTableVO read(String key, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Integer.BYTES * 2L + Long.BYTES * 2) return null;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            // 1. 校验魔数、格式版本与 CRC32
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) return null;
+            int contentLength = (int) size - Long.BYTES;
+            if (buffer.getLong(contentLength) != checksum(buffer, contentLength)) return null;
+
+            // 2. 按布局解码（数组均复制到堆内，不持有映射区域）
+            long version = buffer.getLong();
+            byte[] algorithm = new byte[buffer.getInt()];
+            buffer.get(algorithm);
+            int rateRange = buffer.getInt();
+
+            return StrategyRateTableVO
+                    .builder()
+                    .key(StrategyRateTablePointerVO
+                            .builder()
+                            .version(version)
+                            .build()
+                            .tableKey(key))
+                    .version(version)
+                    .algorithm(new String(algorithm, StandardCharsets.UTF_8))
+                    .rateRange(rateRange)
+                    .table(getArray(buffer))
+                    .awardIds(getArray(buffer))
+                    .aliases(getArray(buffer))
+                    .seed(buffer.getLong())
+                    .build();
+        }
+    }
+
+    /**
+     * 删除写入线程中途退出遗留的临时文件（跳过正在写入的临时文件）
+     */
+    private void deleteStaleTemps(Path directory) {
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "*" + TEMP_SUFFIX)) {
+            for (Path path : paths) {
+                if (!path.equals(writingTemp)) deleteQuietly(path);
+            }
+        } catch (IOException e) {
+            log.warn("概率表快照临时文件清理失败 dir:{}", dir, e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (null == path) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("概率表快照临时文件清理失败 path:{}", path, e);
+        }
+    }
+
+    private static long arrayBytes(int[] array) {
+        return Integer.BYTES + (null == array ? 0L : (long) Integer.BYTES * array.length);
+    }
+
+    private static void putArray(ByteBuffer buffer, int[] array) {
+        if (null == array) {
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+        buffer.putInt(array.length);
+        buffer
+                .asIntBuffer()
+                .put(array);
+        buffer.position(buffer.position() + Integer.BYTES * array.length);
+    }
+
+    private static int[] getArray(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) return null;
+        int[] array = new int[length];
+        IntBuffer intBuffer = buffer.asIntBuffer();
+        intBuffer.get(array);
+        buffer.position(buffer.position() + Integer.BYTES * length);
+        return array;
+    }
+
+    private static long checksum(ByteBuffer buffer, int length) {
+        CRC32 crc32 = new CRC32();
+        ByteBuffer content = buffer.duplicate();
+        content.position(0);
+        content.limit(length);
+        crc32.update(content);
+        return crc32.getValue();
+    }
+
+}
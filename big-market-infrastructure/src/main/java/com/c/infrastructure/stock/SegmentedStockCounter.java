@@ -0,0 +1,269 @@
+package com.c.infrastructure.stock;
+
+import com.c.infrastructure.redis.IRedisService;
+import com.c.types.common.Constants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分段库存计数器（热点 SKU / 热点奖品）
+ * 1. 装配：库存达到阈值时拆分为 N 个分段计数器，分段 Key 以 {库存Key_序号} 作为 Hash Tag 分散到不同槽位，
+ * 各分段的序号账本与分段同槽（集群模式下脚本全部 KEYS 必须同槽），扣减脚本仍为单次 EVALSHA；
+ * 分段数写入元数据 Key，最后写入以保证分段已就绪。
+ * 2. 扣减：从随机分段起依次尝试，跳过本地售罄掩码中的分段；扣空某分段的请求负责在售罄位图中置位，
+ * 置位后位图计数等于分段数即整体售罄。
+ * 3. 兼容：元数据 Key 不存在即未分段，扣减与原单 Key 脚本完全一致；库存 Key 缺失时返回 ABSENT 并重新读取分段数，不会凭空创建计数器。
+ * 4. 重装配：本节点剔除本地分段数与售罄掩码，新建分段前清理售罄位图与分段序号账本；其他节点在分段缺失时剔除本地状态，
+ * 本地掩码全部售罄时按间隔重新读取售罄位图，重装配后自动恢复。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Slf4j
+@Component
+public class SegmentedStockCounter {
+
+    /** 扣减结果：库存耗尽 */
+    public static final long EMPTY = -1;
+
+    /** 扣减结果：序号账本占位失败 */
+    public static final long LOCK_FAILED = -2;
+
+    /** 脚本内部结果：库存 Key 不存在 */
+    private static final long ABSENT = -3;
+
+    /** 分段数上限（售罄掩码以 int 位缓存） */
+    private static final int MAX_SEGMENT_COUNT = 32;
+
+    /** 未分段 */
+    private static final int UNSEGMENTED = 1;
+
+    /** 本地掩码全部售罄后重新读取售罄位图的最小间隔（毫秒） */
+    private static final long SOLD_OUT_MASK_RELOAD_MILLIS = 1000;
+
+    // 库存扣减脚本：仅库存为正时扣减（计数器不会出现负值）-> 序号账本 SETBIT 占位，返回 剩余库存-成功 -1-库存耗尽 -2-占位失败 -3-Key不存在
+    private static final String SUBTRACT_STOCK_SCRIPT = "local stock = tonumber(redis.call('get', KEYS[1])) " +
+            "if not stock then return -3 end " +
+            "if stock <= 0 then return -1 end " +
+            "local surplus = redis.call('decr', KEYS[1]) " +
+            "if redis.call('setbit', KEYS[2], surplus, 1) == 1 then return -2 end " +
+            "if redis.call('ttl', KEYS[2]) == -1 then redis.call('expire', KEYS[2], ARGV[1]) end " +
+            "return surplus";
+
+    // 分段售罄置位：返回置位后的售罄分段数，已置位返回 -1
+    private static final String MARK_SOLD_OUT_SCRIPT = "if redis.call('setbit', KEYS[1], ARGV[1], 1) == 1 then return -1 end " +
+            "if redis.call('ttl', KEYS[1]) == -1 then redis.call('expire', KEYS[1], ARGV[2]) end " +
+            "return redis.call('bitcount', KEYS[1])";
+
+    // 售罄掩码：读取前 N 个分段的售罄位
+    private static final String SOLD_OUT_MASK_SCRIPT = "local mask = 0 " +
+            "for i = 0, tonumber(ARGV[1]) - 1 do " +
+            "if redis.call('getbit', KEYS[1], i) == 1 then mask = mask + 2 ^ i end end " +
+            "return mask";
+
+    @Value("${stock.segment.count:1}")
+    private int segmentCount;
+
+    @Value("${stock.segment.min-stock:10000}")
+    private long minStock;
+
+    @Resource
+    private IRedisService redisService;
+
+    /** 库存Key -> 分段数（1 表示未分段） */
+    private final Map<String, Integer> segmentCountMap = new ConcurrentHashMap<>();
+
+    /** 库存Key -> 本地售罄掩码 */
+    private final Map<String, SoldOutMask> soldOutMaskMap = new ConcurrentHashMap<>();
+
+    /**
+     * 分段装配库存（已存在则跳过）
+     *
+     * @param cacheKey 库存缓存Key
+     * @param stock    库存总量
+     * @return true-已由分段计数器承载，false-不满足分段条件，由调用方按单 Key 装配
+     */
+    public boolean cacheStock(String cacheKey, long stock) {
+        // 1. 重装配：剔除本地分段数与售罄掩码，下一次扣减重新加载
+        invalidate(cacheKey);
+        int count = Math.min(segmentCount, MAX_SEGMENT_COUNT);
+        if (count <= UNSEGMENTED || stock < Math.max(minStock, count)) return false;
+
+        // 2. 已分段：登记分段数后跳过；已按单 Key 装配：保持原样，避免库存重复
+        if (segmentCount(cacheKey) > UNSEGMENTED) return true;
+        if (redisService.isExists(cacheKey)) return false;
+
+        // 3. 清理上一轮的售罄位图与分段序号账本，避免新库存被旧售罄位或旧序号误判
+        redisService.remove(Constants.RedisKey.STOCK_SEGMENT_SOLD_OUT_KEY + cacheKey);
+        for (int segment = 0; segment < count; segment++) {
+            redisService.remove(ledgerKey(segmentKey(cacheKey, segment)));
+        }
+
+        // 4. 均分库存，余数分摊到前几个分段
+        Map<String, Long> keyValues = new HashMap<>((int) (count / 0.75f) + 1);
+        for (int segment = 0; segment < count; segment++) {
+            keyValues.put(segmentKey(cacheKey, segment), stock / count + (segment < stock % count ? 1 : 0));
+        }
+        redisService.setAtomicLongIfAbsent(keyValues);
+
+        // 5. 最后写入分段数，扣减方读到元数据时分段已就绪
+        redisService.setAtomicLong(Constants.RedisKey.STOCK_SEGMENT_COUNT_KEY + cacheKey, count);
+        segmentCountMap.put(cacheKey, count);
+        log.info("库存分段装配完成 cacheKey:{} 库存:{} 分段数:{}", cacheKey, stock, count);
+        return true;
+    }
+
+    /**
+     * 库存扣减（单 Key 或分段）
+     *
+     * @param cacheKey      库存缓存Key
+     * @param expireSeconds 序号账本与售罄位图过期秒数
+     * @return >0-扣减成功（剩余库存或未售罄分段数，仅作成功判定），0-扣减成功且库存恰好整体售罄，-1-库存耗尽或未装配，-2-占位失败
+     */
+    public long subtract(String cacheKey, long expireSeconds) {
+        String expire = String.valueOf(Math.max(1, expireSeconds));
+        int count = segmentCount(cacheKey);
+        if (count <= UNSEGMENTED) {
+            long code = subtractSegment(cacheKey, expire);
+            if (ABSENT != code) return code;
+
+            // 单 Key 不存在：可能已被其他节点分段装配，重新读取分段数
+            segmentCountMap.remove(cacheKey);
+            count = segmentCount(cacheKey);
+            if (count <= UNSEGMENTED) return EMPTY;
+        }
+
+        SoldOutMask soldOutMask = soldOutMask(cacheKey, count);
+        int start = ThreadLocalRandom
+                .current()
+                .nextInt(count);
+        for (int i = 0; i < count; i++) {
+            int segment = (start + i) % count;
+            if (soldOutMask.isSoldOut(segment)) continue;
+
+            long code = subtractSegment(segmentKey(cacheKey, segment), expire);
+            if (LOCK_FAILED == code || code > 0) return code;
+            soldOutMask.markSoldOut(segment);
+            if (ABSENT == code) {
+                // 分段缺失（库存被清理或重装配中）：剔除本地状态，下一次扣减重新加载
+                invalidate(cacheKey);
+                continue;
+            }
+            if (0 != code) continue;
+
+            // 扣空该分段的请求负责置位售罄位图，位图计数达到分段数即整体售罄
+            long soldOutCount = redisService.evalSha(MARK_SOLD_OUT_SCRIPT,
+                    Collections.singletonList(Constants.RedisKey.STOCK_SEGMENT_SOLD_OUT_KEY + cacheKey),
+                    String.valueOf(segment), expire);
+            log.debug("库存分段售罄 cacheKey:{} 分段:{} 已售罄分段数:{}", cacheKey, segment, soldOutCount);
+            return soldOutCount >= count ? 0 : count - Math.max(soldOutCount, 0);
+        }
+
+        // 本地掩码全部售罄：超过重新读取间隔后剔除，其他节点重装配清空的售罄位图可被重新感知
+        if (System.currentTimeMillis() - soldOutMask.loadMillis >= SOLD_OUT_MASK_RELOAD_MILLIS) {
+            soldOutMaskMap.remove(cacheKey, soldOutMask);
+        }
+        return EMPTY;
+    }
+
+    /**
+     * 查询剩余库存（分段时汇总全部分段）
+     *
+     * @param cacheKey 库存缓存Key
+     * @return 剩余库存，未装配返回null
+     */
+    public Long queryStock(String cacheKey) {
+        int count = segmentCount(cacheKey);
+        if (count <= UNSEGMENTED) return redisService.getAtomicLongIfExists(cacheKey);
+
+        Long total = null;
+        for (int segment = 0; segment < count; segment++) {
+            Long stock = redisService.getAtomicLongIfExists(segmentKey(cacheKey, segment));
+            if (null != stock) total = (null == total ? 0 : total) + stock;
+        }
+        return total;
+    }
+
+    private long subtractSegment(String key, String expire) {
+        long code = redisService.evalSha(SUBTRACT_STOCK_SCRIPT,
+                Arrays.asList(key, ledgerKey(key)), expire);
+        log.debug("库存脚本扣减 key:{} 返回码(剩余库存):{}", key, code);
+        return code;
+    }
+
+    private int segmentCount(String cacheKey) {
+        Integer count = segmentCountMap.get(cacheKey);
+        if (null != count) return count;
+        Long value = redisService.getAtomicLongIfExists(Constants.RedisKey.STOCK_SEGMENT_COUNT_KEY + cacheKey);
+        count = null == value ? UNSEGMENTED : (int) Math.min(value, MAX_SEGMENT_COUNT);
+        segmentCountMap.put(cacheKey, count);
+        return count;
+    }
+
+    private SoldOutMask soldOutMask(String cacheKey, int count) {
+        SoldOutMask soldOutMask = soldOutMaskMap.get(cacheKey);
+        if (null != soldOutMask) return soldOutMask;
+        long mask = redisService.evalSha(SOLD_OUT_MASK_SCRIPT,
+                Collections.singletonList(Constants.RedisKey.STOCK_SEGMENT_SOLD_OUT_KEY + cacheKey),
+                String.valueOf(count));
+        soldOutMask = new SoldOutMask((int) mask);
+        SoldOutMask previous = soldOutMaskMap.putIfAbsent(cacheKey, soldOutMask);
+        return null != previous ? previous : soldOutMask;
+    }
+
+    private void invalidate(String cacheKey) {
+        segmentCountMap.remove(cacheKey);
+        soldOutMaskMap.remove(cacheKey);
+    }
+
+    /**
+     * 库存序号账本 Key：以库存 Key 作为 Hash Tag，与库存计数器同槽
+     * 未分段库存 Key 本身不含 Hash Tag，按整个 Key 计算槽位，恰与 stock_ledger_key_{库存Key} 的槽位一致；
+     * 分段 Key 已是 {库存Key_序号} 形式，直接拼接前缀即可。
+     *
+     * @param key 库存计数器 Key（单 Key 或分段 Key）
+     * @return 序号账本 Key
+     */
+    public static String ledgerKey(String key) {
+        String hashTag = key.startsWith("{") ? key : "{" + key + "}";
+        return Constants.RedisKey.STOCK_LEDGER_KEY + hashTag;
+    }
+
+    private static String segmentKey(String cacheKey, int segment) {
+        return "{" + cacheKey + Constants.UNDERLINE + segment + "}";
+    }
+
+    /**
+     * 本地售罄掩码（按位记录已售罄分段，附带加载时间用于重新读取判定）
+     */
+    private static final class SoldOutMask {
+
+        private final AtomicInteger bits;
+
+        private final long loadMillis = System.currentTimeMillis();
+
+        private SoldOutMask(int bits) {
+            this.bits = new AtomicInteger(bits);
+        }
+
+        private boolean isSoldOut(int segment) {
+            return (bits.get() & (1 << segment)) != 0;
+        }
+
+        private void markSoldOut(int segment) {
+            bits.getAndUpdate(mask -> mask | (1 << segment));
+        }
+
+    }
+
+}
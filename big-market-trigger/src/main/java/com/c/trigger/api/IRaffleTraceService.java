@@ -0,0 +1,26 @@
+package com.c.trigger.api;
+
+import com.c.domain.strategy.model.entity.RaffleTraceEntity;
+import com.c.types.model.Response;
+
+import java.util.List;
+
+/**
+ * 抽奖追踪运维服务接口。
+ * 提供最近抽奖追踪（各阶段耗时与决策）的查询能力，用于线上排查慢抽奖与异常抽奖。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+public interface IRaffleTraceService {
+
+    /**
+     * 查询最近的抽奖追踪（由新到旧）
+     *
+     * @param limit    最大条数
+     * @param slowOnly 是否仅返回慢抽奖
+     * @return 追踪列表
+     */
+    Response<List<RaffleTraceEntity>> queryRecentTraces(Integer limit, Boolean slowOnly);
+
+}
@@ -25,9 +25,12 @@ import com.c.domain.strategy.model.entity.RaffleAwardEntity;
 import com.c.domain.strategy.model.entity.RaffleFactorEntity;
 import com.c.domain.strategy.service.IRaffleStrategy;
 import com.c.domain.strategy.service.armory.IStrategyArmory;
+import com.c.domain.strategy.service.trace.RaffleTraceHolder;
+import com.c.domain.strategy.service.trace.RaffleTraceRecorder;
 import com.c.types.annotations.DCCConfiguration;
 import com.c.types.annotations.DCCValue;
 import com.c.types.annotations.RateLimiterAccessInterceptor;
+import com.c.types.annotations.RequestMemoScope;
 import com.c.types.enums.ResponseCode;
 import com.c.types.exception.AppException;
 import com.c.types.model.Response;
@@ -77,6 +80,8 @@ public class RaffleActivityController implements IRaffleActivityService {
     @Resource
     private IRaffleActivityAccountQuotaService raffleActivityAccountQuotaService;
     @Resource
+    private RaffleTraceRecorder raffleTraceRecorder;
+    @Resource
     private ICreditAdjustService creditAdjustService;
 
 
@@ -136,12 +141,15 @@ public class RaffleActivityController implements IRaffleActivityService {
      */
     @Override
     @PostMapping("draw")
+    @RequestMemoScope
     @RateLimiterAccessInterceptor(key = "userId", fallbackMethod = "drawRateLimiterError", permitsPerSecond = 1.0d,
             blacklistCount = 1)
     public Response<ActivityDrawResponseDTO> draw(@RequestBody ActivityDrawRequestDTO request) {
         /* 1. 定义局部上下文变量，用于日志追踪 */
         String userId = "unknown";
         Long activityId = null;
+        boolean traceOwner = false;
+        boolean traceError = true;
 
         try {
             // 2. 入参合法性校验
@@ -160,11 +168,13 @@ public class RaffleActivityController implements IRaffleActivityService {
                 return Response.fail(ResponseCode.DEGRADE_SWITCH);
             }
 
-            log.info("抽奖行为触发，userId:{} activityId:{}", userId, activityId);
+            log.debug("抽奖行为触发，userId:{} activityId:{}", userId, activityId);
+            traceOwner = RaffleTraceHolder.begin("draw", userId);
 
             // 5. 参与活动：生成活动参与订单，锁定用户额度
             UserRaffleOrderEntity orderEntity = raffleActivityPartakeService.createOrder(userId, activityId);
-            log.info("用户参与活动成功，userId:{} activityId:{} orderId:{}", userId, activityId, orderEntity.getOrderId());
+            log.debug("用户参与活动成功，userId:{} activityId:{} orderId:{}", userId, activityId, orderEntity.getOrderId());
+            RaffleTraceHolder.stage("partake", orderEntity.getOrderId());
 
             // 6. 执行抽奖策略：计算随机结果
             RaffleAwardEntity raffleAwardEntity = raffleStrategy.performRaffle(RaffleFactorEntity
@@ -188,6 +198,7 @@ public class RaffleActivityController implements IRaffleActivityService {
                     .awardState(AwardStateVO.CREATE)
                     .build();
             awardService.saveUserAwardRecord(userAwardRecord);
+            RaffleTraceHolder.stage("award_record", raffleAwardEntity.getAwardId());
 
             // 8. 封装并返回 DTO
             ActivityDrawResponseDTO responseDTO = ActivityDrawResponseDTO
@@ -197,9 +208,10 @@ public class RaffleActivityController implements IRaffleActivityService {
                     .awardIndex(raffleAwardEntity.getSort())
                     .build();
 
-            log.info("抽奖执行完成，userId:{} orderId:{} awardId:{}", userId, orderEntity.getOrderId(),
+            log.debug("抽奖执行完成，userId:{} orderId:{} awardId:{}", userId, orderEntity.getOrderId(),
                     raffleAwardEntity.getAwardId());
 
+            traceError = false;
             return Response.success(responseDTO);
 
         } catch (AppException e) {
@@ -210,6 +222,9 @@ public class RaffleActivityController implements IRaffleActivityService {
             /* 系统级未知异常捕获 */
             log.error("抽奖系统未知错误，userId:{} activityId:{}", userId, activityId, e);
             return Response.fail(ResponseCode.UN_ERROR);
+        } finally {
+            /* 抽奖追踪结束：写入环形缓冲区，仅采样或慢请求输出日志 */
+            if (traceOwner) raffleTraceRecorder.record(RaffleTraceHolder.end(traceError));
         }
     }
 
@@ -83,6 +83,35 @@ public class RaffleStrategyController implements IRaffleStrategyService {
         }
     }
 
+    /**
+     * 策略增量装配接口 - 单奖品概率或权重池归属变更后重建受影响的抽奖池
+     *
+     * @param strategyId 策略 ID
+     * @param awardId    发生变更的奖品 ID
+     * @return 装配执行结果
+     */
+    @Override
+    @GetMapping("armory_award")
+    public Response<Boolean> strategyArmoryByAward(@RequestParam Long strategyId, @RequestParam Integer awardId) {
+        try {
+            log.info("抽奖策略增量装配开始，策略ID: {} 奖品ID: {}", strategyId, awardId);
+            boolean armoryStatus = strategyArmory.assembleLotteryStrategyByAwardId(strategyId, awardId);
+            return Response
+                    .<Boolean>builder()
+                    .code(ResponseCode.SUCCESS.getCode())
+                    .info(ResponseCode.SUCCESS.getInfo())
+                    .data(armoryStatus)
+                    .build();
+        } catch (Exception e) {
+            log.error("抽奖策略增量装配失败，策略ID: {} 奖品ID: {}", strategyId, awardId, e);
+            return Response
+                    .<Boolean>builder()
+                    .code(ResponseCode.UN_ERROR.getCode())
+                    .info(ResponseCode.UN_ERROR.getInfo())
+                    .build();
+        }
+    }
+
     /**
      * 查询抽奖奖品列表（含用户解锁进度）
      * 业务背景：部分奖品（如大奖）需达到一定抽奖次数后才可获得。此接口返回奖品明细及用户的解锁状态。
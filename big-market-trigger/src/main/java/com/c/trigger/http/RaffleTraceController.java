@@ -0,0 +1,70 @@
+package com.c.trigger.http;
+
+import com.c.domain.strategy.model.entity.RaffleTraceEntity;
+import com.c.domain.strategy.service.trace.RaffleTraceRecorder;
+import com.c.trigger.api.IRaffleTraceService;
+import com.c.types.enums.ResponseCode;
+import com.c.types.model.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+import java.util.List;
+
+/**
+ * 抽奖追踪运维接口
+ * 核心能力：
+ * 1. 查询追踪环形缓冲区中最近的抽奖追踪，包含各阶段耗时（微秒）与决策
+ * 2. 支持仅查询慢抽奖，配合 raffle-trace 采样日志定位瓶颈阶段
+ *
+ * @author cyh
+ * @date 2026/03/11
+ * @see IRaffleTraceService 抽奖追踪接口定义
+ * @see RaffleTraceRecorder 抽奖追踪记录器
+ */
+@Slf4j
+@RestController
+@CrossOrigin("${app.config.cross-origin}")
+@RequestMapping("/api/${app.config.api-version}/raffle/trace/")
+public class RaffleTraceController implements IRaffleTraceService {
+
+    /** 单次查询最大条数 */
+    private static final int MAX_LIMIT = 500;
+
+    @Resource
+    private RaffleTraceRecorder raffleTraceRecorder;
+
+    /**
+     * 查询最近的抽奖追踪
+     * 使用示例（curl）：
+     * curl --request GET --url 'http://localhost:8091/api/v1/raffle/trace/query_recent_traces?limit=20&slowOnly=true'
+     *
+     * @param limit    最大条数（默认 50，上限 500）
+     * @param slowOnly 是否仅返回慢抽奖（默认 false）
+     * @return 追踪列表（由新到旧）
+     */
+    @RequestMapping(value = "query_recent_traces", method = RequestMethod.GET)
+    @Override
+    public Response<List<RaffleTraceEntity>> queryRecentTraces(
+            @RequestParam(required = false, defaultValue = "50") Integer limit,
+            @RequestParam(required = false, defaultValue = "false") Boolean slowOnly) {
+        try {
+            int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+            List<RaffleTraceEntity> traces = raffleTraceRecorder.recent(size, slowOnly);
+            return Response
+                    .<List<RaffleTraceEntity>>builder()
+                    .code(ResponseCode.SUCCESS.getCode())
+                    .info(ResponseCode.SUCCESS.getInfo())
+                    .data(traces)
+                    .build();
+        } catch (Exception e) {
+            log.error("查询抽奖追踪异常 limit:{} slowOnly:{}", limit, slowOnly, e);
+            return Response
+                    .<List<RaffleTraceEntity>>builder()
+                    .code(ResponseCode.UN_ERROR.getCode())
+                    .info(ResponseCode.UN_ERROR.getInfo())
+                    .build();
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.c.trigger.job;
+
+import com.c.domain.activity.service.armory.IActivityArmory;
+import com.c.domain.strategy.service.armory.IStrategyArmory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动预热任务：全量装配开启中的抽奖活动
+ * 1. 快照恢复：优先从本地内存映射快照恢复与 Redis 生效版本一致的概率表副本。
+ * 2. 指针加载：默认池与各权重池均已有 Redis 生效版本的策略直接按版本指针加载，任一抽奖池无生效版本时整体装配，
+ * 避免每次实例启动都生成新版本并广播全集群副本失效。
+ * 3. 活动发现：启动时查询所有状态开启且未结束的活动。
+ * 4. 并行装配：在有界线程池上并发装配各活动的 SKU 库存与抽奖策略（库存预热走 Pipeline 批量写入）。
+ * 5. 就绪信号：ApplicationRunner 执行完毕前 Spring Boot 不会发布 ACCEPTING_TRAFFIC，
+ * 配合 /actuator/health/readiness 探针，新实例仅在抽奖链路预热完成后才接收流量。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Slf4j
+@Component
+public class ArmoryWarmUpRunner implements ApplicationRunner {
+
+    @Resource
+    private IActivityArmory activityArmory;
+
+    @Resource
+    private IStrategyArmory strategyArmory;
+
+    @Resource
+    private ThreadPoolExecutor executor;
+
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${strategy.armory.warm-up.enabled:true}")
+    private boolean enabled;
+
+    @Value("${strategy.armory.warm-up.timeout-seconds:120}")
+    private long timeoutSeconds;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!enabled) {
+            log.info(">>>>>> 启动预热已关闭，跳过全量装配");
+            return;
+        }
+
+        // 1. 显式声明未就绪：预热期间拒绝流量
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+
+        // 2. 本地快照恢复概率表副本（版本与 Redis 一致才生效）
+        try {
+            strategyArmory.restoreRateTableSnapshot();
+        } catch (Exception e) {
+            log.warn(">>>>>> 概率表快照恢复失败，回退为全量装配", e);
+        }
+
+        // 3. 发现待装配活动
+        List<Long> activityIds = activityArmory.queryArmoryActivityIdList();
+        if (null == activityIds || activityIds.isEmpty()) {
+            log.info(">>>>>> 启动预热完成，无开启中的活动");
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        AtomicInteger failCount = new AtomicInteger();
+
+        // 4. 并行装配：每个活动独立任务，单个失败不影响其他活动
+        CompletableFuture<?>[] futures = activityIds
+                .stream()
+                .map(activityId -> CompletableFuture.runAsync(() -> {
+                    try {
+                        activityArmory.assembleActivitySkuByActivityId(activityId);
+                        // 全部抽奖池本地副本已就绪或 Redis 已有生效版本时直接加载，不重新装配
+                        if (strategyArmory.loadAssembledByActivityId(activityId)) return;
+                        strategyArmory.assembleLotteryStrategyByActivityId(activityId);
+                    } catch (Exception e) {
+                        failCount.incrementAndGet();
+                        log.error("启动预热装配失败 | activityId: {}", activityId, e);
+                    }
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+
+        // 5. 等待全部完成（超时后不再阻塞启动：已有生效版本的策略由首个请求按指针懒加载，
+        // 尚未装配的策略在其装配任务完成前抽奖会报未装配异常）
+        try {
+            CompletableFuture
+                    .allOf(futures)
+                    .get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn(">>>>>> 启动预热超时 | 超时阈值: {}s 活动数: {}", timeoutSeconds, activityIds.size());
+        }
+
+        log.info(">>>>>> 启动预热完成 | 活动数: {} 失败数: {} 耗时: {}ms", activityIds.size(), failCount.get(),
+                System.currentTimeMillis() - startTime);
+    }
+
+}
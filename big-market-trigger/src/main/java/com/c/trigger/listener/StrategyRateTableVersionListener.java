@@ -0,0 +1,74 @@
+package com.c.trigger.listener;
+
+import com.c.domain.strategy.model.vo.StrategyRateTableVersionVO;
+import com.c.domain.strategy.service.armory.StrategyRateTableLocalCache;
+import com.c.domain.strategy.service.rule.StrategyRuleLocalCache;
+import com.c.domain.strategy.service.rule.chain.factory.DefaultChainFactory;
+import com.c.domain.strategy.service.rule.tree.factory.DefaultTreeFactory;
+import com.c.types.common.Constants;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+/**
+ * 策略概率表版本变更监听器
+ * 1. 集群广播：订阅 Redis Pub/Sub 主题，感知任意节点的策略装配/重装配动作。
+ * 2. 副本失效：按版本号剔除落后的 JVM 本地概率表副本，下一次抽奖自动从 Redis 重新加载。
+ * 3. 链路失效：默认抽奖池（Key = 策略ID）重装配意味着策略配置可能变更，同步剔除该策略的已编译责任链、决策树与预编译规则。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Slf4j
+@Component
+public class StrategyRateTableVersionListener {
+
+    @Resource
+    private RedissonClient redissonClient;
+
+    @Resource
+    private StrategyRateTableLocalCache rateTableLocalCache;
+
+    @Resource
+    private DefaultChainFactory defaultChainFactory;
+
+    @Resource
+    private DefaultTreeFactory defaultTreeFactory;
+
+    @Resource
+    private StrategyRuleLocalCache ruleLocalCache;
+
+    private RTopic topic;
+
+    private int listenerId;
+
+    @PostConstruct
+    public void subscribe() {
+        topic = redissonClient.getTopic(Constants.RedisKey.STRATEGY_RATE_TABLE_VERSION_TOPIC);
+        listenerId = topic.addListener(StrategyRateTableVersionVO.class, (channel, message) -> {
+            if (null == message || null == message.getKey() || null == message.getVersion()) {
+                log.warn("接收到非法概率表版本消息，已忽略 | Channel: {}", channel);
+                return;
+            }
+            rateTableLocalCache.invalidate(message.getKey(), message.getVersion());
+            if (!message.getKey().contains(Constants.UNDERLINE)) {
+                Long strategyId = Long.valueOf(message.getKey());
+                defaultChainFactory.invalidate(strategyId);
+                defaultTreeFactory.invalidateByStrategyId(strategyId);
+                ruleLocalCache.invalidate(strategyId);
+            }
+        });
+        log.info("概率表版本变更监听已启动 | Topic: {}", Constants.RedisKey.STRATEGY_RATE_TABLE_VERSION_TOPIC);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (null != topic) topic.removeListener(listenerId);
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.c.types.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * 请求级记忆化作用域注解
+ * 标注在请求入口方法上，方法执行期间（含其调用的全部领域服务）标注 {@link RequestMemoized} 的仓储读取结果按参数复用，方法结束即释放。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface RequestMemoScope {
+
+}
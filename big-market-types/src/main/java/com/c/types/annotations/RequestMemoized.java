@@ -0,0 +1,18 @@
+package com.c.types.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * 请求级记忆化读取注解
+ * 标注在只读且请求内结果不变的仓储方法上（如活动/策略配置）；处于 {@link RequestMemoScope} 作用域内时，相同参数的重复调用直接返回首次结果。
+ * 注意：用户账户、库存等会在请求内被修改的数据不可标注。
+ *
+ * @author cyh
+ * @date 2026/03/11
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface RequestMemoized {
+
+}
@@ -16,11 +16,24 @@ public class Constants {
         public static String STRATEGY_AWARD_LIST_KEY = "big_market_strategy_award_list_key_";
         // 策略概率范围（分母）- 两者通用
         public static String STRATEGY_RATE_RANGE_KEY = "strategy_rate_range_key_";
-        // O(1) 算法：使用 Hash 存储，后缀为 _O1
+        // O(1) 算法：紧凑二进制 String 存储（每槽位 4 字节大端整数），单次 GET 整表解码后缓存于 JVM 本地
         public static String STRATEGY_RATE_TABLE_O1_KEY = "strategy_rate_table_o1_key_";
-        public static String STRATEGY_ARMORY_ALGORITHM_KEY = "strategy_armory_algorithm_key_";
         // O(LogN) 算法：使用 String 序列化存储，后缀为 _OLN
         public static String STRATEGY_RATE_TABLE_OLN_KEY = "strategy_rate_table_oln_key_";
+        // Alias 算法：别名表整体序列化存储，规模仅与奖品数量相关
+        public static String STRATEGY_RATE_TABLE_ALIAS_KEY = "strategy_rate_table_alias_key_";
+        // 牌堆算法：预洗牌的有限牌堆，编码同 O(1) 紧凑二进制 String
+        public static String STRATEGY_RATE_TABLE_DECK_KEY = "strategy_rate_table_deck_key_";
+        // 牌堆轮次置换种子：每个版本装配时随机生成，与发牌轮次共同决定该轮的发牌顺序
+        public static String STRATEGY_RATE_TABLE_DECK_SEED_KEY = "strategy_rate_table_deck_seed_key_";
+        // 牌堆发牌游标：每次抽奖 INCR 一次，按游标顺序发牌
+        public static String STRATEGY_RATE_TABLE_DECK_CURSOR_KEY = "strategy_rate_table_deck_cursor_key_";
+        // 概率表版本指针：蓝绿装配的原子切换点（版本号 + 算法）
+        public static String STRATEGY_RATE_TABLE_POINTER_KEY = "strategy_rate_table_pointer_key_";
+        // 概率表版本号：每次装配自增，用于 JVM 本地副本失效判定
+        public static String STRATEGY_RATE_TABLE_VERSION_KEY = "strategy_rate_table_version_key_";
+        // 概率表版本变更广播主题（Pub/Sub）
+        public static String STRATEGY_RATE_TABLE_VERSION_TOPIC = "strategy_rate_table_version_topic";
         public static String RULE_TREE_VO_KEY = "rule_tree_vo_key_";
         public static String STRATEGY_AWARD_COUNT_KEY = "strategy_award_count_key_";
         public static String STRATEGY_RULE_WEIGHT_KEY = "strategy_rule_weight_key_";
@@ -29,5 +42,16 @@ public class Constants {
         public static String ACTIVITY_SKU_STOCK_COUNT_KEY = "activity_sku_stock_count_key_";
         public static String ACTIVITY_SKU_STOCK_ZERO_FLAG = "activity_sku_stock_zero_flag:";
         public static String USER_CREDIT_ACCOUNT_LOCK = "user_credit_account_lock_";
+        // 库存序号账本（Key 后缀：{库存计数器 Key}，Hash Tag 保证与计数器同槽）：Bitmap 按扣减后剩余序号 SETBIT 占位防超卖，每百万库存约 125KB
+        public static String STOCK_LEDGER_KEY = "stock_ledger_key_";
+        // 库存分段数（Key 后缀：库存计数器 Key），不存在即未分段；分段计数器 Key 为 {库存计数器Key_分段序号}
+        public static String STOCK_SEGMENT_COUNT_KEY = "stock_segment_count_key_";
+        // 库存分段售罄位图（Key 后缀：库存计数器 Key），按分段序号置位，位图计数等于分段数即整体售罄
+        public static String STOCK_SEGMENT_SOLD_OUT_KEY = "stock_segment_sold_out_key_";
+        // 用户累计/当日抽奖次数计数器（Key 后缀：策略ID_用户ID[_日期]），参与抽奖落单后原子自增，缺失或过期时从数据库对账重建
+        public static String USER_RAFFLE_TOTAL_COUNT_KEY = "user_raffle_total_count_key_";
+        public static String USER_RAFFLE_DAY_COUNT_KEY = "user_raffle_day_count_key_";
+        // 用户抽奖次数计数器墓碑（Key 后缀：{计数器 Key}，Hash Tag 保证与计数器同槽）：下单自增发现计数器缺失时写入，短时阻止读取方以旧读数重建
+        public static String USER_RAFFLE_COUNT_TOMBSTONE_KEY = "user_raffle_count_tombstone_key_";
     }
 }